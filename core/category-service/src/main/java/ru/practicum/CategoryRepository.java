@@ -1,5 +1,7 @@
 package ru.practicum;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.category.Category;
@@ -8,4 +10,6 @@ import ru.practicum.category.Category;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     boolean existsByName(String name);
+
+    Slice<Category> findAllBy(Pageable pageable);
 }
@@ -7,7 +7,9 @@ import ru.practicum.exception.CategoryNameUniqueException;
 import ru.practicum.exception.CategoryNotFoundException;
 import ru.practicum.exception.InvalidCategoryException;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface CategoryService {
@@ -22,4 +24,6 @@ public interface CategoryService {
     List<CategoryDto> findAllCategories(Integer from, Integer size);
 
     Optional<Category> findById(Long categoryId);
+
+    Map<Long, Category> findAllByIds(Collection<Long> categoryIds);
 }
@@ -2,11 +2,13 @@ package ru.practicum;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import ru.practicum.category.Category;
 import ru.practicum.category.CategoryDto;
 import ru.practicum.exception.CategoryIsRelatedToEventException;
@@ -15,8 +17,11 @@ import ru.practicum.exception.CategoryNotFoundException;
 import ru.practicum.exception.InvalidCategoryException;
 import ru.practicum.feign.EventRepository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -62,6 +67,7 @@ public class CategoryServiceImpl implements CategoryService {
         existingCategory.setName(categoryDto.getName());
 
         Category updatedCategory = categoryRepository.save(existingCategory);
+        evictFromEventServiceAfterCommit(updatedCategory.getId());
 
         log.info("Main-service. updateCategory success: id = {}", updatedCategory.getId());
 
@@ -80,6 +86,7 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         categoryRepository.deleteById(catId);
+        evictFromEventServiceAfterCommit(catId);
 
         log.info("Main-service. deleteCategory success: id = {}", catId);
 
@@ -91,7 +98,7 @@ public class CategoryServiceImpl implements CategoryService {
         log.info("Main-service. findAllCategories input: from = {}, size = {}", from, size);
 
         Pageable pageable = PageRequest.of(from / size, size);
-        Page<Category> categoryPage = categoryRepository.findAll(pageable);
+        Slice<Category> categoryPage = categoryRepository.findAllBy(pageable);
 
         List<CategoryDto> categories = categoryPage.stream()
                 .map(categoryMapper::toDto)
@@ -113,9 +120,34 @@ public class CategoryServiceImpl implements CategoryService {
         return categoryMapper.toDto(category);
     }
 
+    // Сброс кэша после фиксации, чтобы event-service не успел перечитать старое значение
+    private void evictFromEventServiceAfterCommit(final Long categoryId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventRepository.evictCategory(categoryId);
+            }
+        });
+    }
+
     @Override
     public Optional<Category> findById(final Long categoryId) {
         return categoryRepository
                 .findById(categoryId);
     }
+
+    @Override
+    public Map<Long, Category> findAllByIds(final Collection<Long> categoryIds) {
+        log.info("Main-service. findAllByIds input: {} ids", categoryIds.size());
+
+        if (categoryIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Category> categories = categoryRepository.findAllById(categoryIds).stream()
+                .collect(Collectors.toMap(Category::getId, Function.identity()));
+
+        log.info("Main-service. findAllByIds success: found {} categories", categories.size());
+
+        return categories;
+    }
 }
@@ -3,12 +3,17 @@ package ru.practicum.controller;
 import jakarta.validation.constraints.Positive;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.category.Category;
 import ru.practicum.CategoryService;
 import ru.practicum.exception.CategoryNotFoundException;
 
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequestMapping("/internal/category")
 public class InternalCategoryController {
@@ -24,4 +29,9 @@ public class InternalCategoryController {
         return categoryService.findById(categoryId)
                 .orElseThrow(() -> new CategoryNotFoundException(String.format("Category with id=%d was not found", categoryId)));
     }
+
+    @PostMapping("/batch")
+    public Map<Long, Category> findAllByIds(@RequestBody final Set<Long> categoryIds) {
+        return categoryService.findAllByIds(categoryIds);
+    }
 }
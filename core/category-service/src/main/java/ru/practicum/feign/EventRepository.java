@@ -1,10 +1,12 @@
 package ru.practicum.feign;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class EventRepository {
 
     private final EventFeignClient eventFeignClient;
@@ -16,4 +18,13 @@ public class EventRepository {
     public void delete(final Long eventId) {
         eventFeignClient.deleteEvent(eventId);
     }
+
+    // Ошибка уведомления не отменяет изменение категории: кэш event-service устареет не дольше своего TTL
+    public void evictCategory(final Long categoryId) {
+        try {
+            eventFeignClient.evictCategory(categoryId);
+        } catch (RuntimeException e) {
+            log.warn("Main-service. evictCategory failed: id = {}, {}", categoryId, e.getMessage());
+        }
+    }
 }
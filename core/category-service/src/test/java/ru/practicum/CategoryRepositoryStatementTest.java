@@ -0,0 +1,40 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.category.Category;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Список категорий выбирается одним запросом с LIMIT size + 1, без COUNT(*)
+ */
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class CategoryRepositoryStatementTest {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Test
+    void categoriesPageIsSingleQueryWithoutCount() {
+        for (int i = 0; i < 5; i++) {
+            categoryRepository.save(Category.builder().name("category " + i).build());
+        }
+        categoryRepository.flush();
+        sqlStatementCounter.reset();
+
+        Slice<Category> page = categoryRepository.findAllBy(PageRequest.of(0, 2));
+
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(sqlStatementCounter.statements()).hasSize(1);
+        assertThat(sqlStatementCounter.countQueries()).isZero();
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import ru.practicum.exception.handler.ErrorHandlerConfig;
 
 @SpringBootApplication
@@ -19,6 +20,7 @@ import ru.practicum.exception.handler.ErrorHandlerConfig;
         "ru.practicum"
 })
 @Import(ErrorHandlerConfig.class)
+@EnableScheduling
 public class EventApplication {
     public static void main(String[] args) {
         SpringApplication.run(EventApplication.class, args);
@@ -2,6 +2,7 @@ package ru.practicum.comment;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -32,9 +33,9 @@ public interface CommentRepository  extends JpaRepository<Comment, Long> {
 
     boolean existsByIdAndEventIdAndAuthorId(Long commentId, Long eventId, Long userId);
 
-    Page<Comment> findByEventIdAndStatus(Long eventId, CommentStatus status, Pageable pageable);
+    Slice<Comment> findByEventIdAndStatus(Long eventId, CommentStatus status, Pageable pageable);
 
-    Page<Comment> findByAuthorId(Long userId, Pageable pageable);
+    Slice<Comment> findByAuthorId(Long userId, Pageable pageable);
 
     long countByEventId(Long eventId);
 
@@ -2,8 +2,8 @@ package ru.practicum.comment;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.event.Event;
@@ -59,7 +59,7 @@ public class CommentServiceImpl implements CommentService {
         if (!eventRepository.existsById(eventId)) {
             throw new EventNotFoundException("Событие не найдено с ID %d".formatted(eventId));
         }
-        Page<Comment> comments = commentRepository.findByEventIdAndStatus(eventId, CommentStatus.PUBLISHED, pageable);
+        Slice<Comment> comments = commentRepository.findByEventIdAndStatus(eventId, CommentStatus.PUBLISHED, pageable);
 
         log.info("Main-service. findEventComments success = {}", comments.getSize());
 
@@ -73,7 +73,7 @@ public class CommentServiceImpl implements CommentService {
         log.info("Main-service. findUserComments userId = {}", userId);
         User author = userRepository.findById(userId);
 
-        Page<Comment> comments = commentRepository.findByAuthorId(userId, pageable);
+        Slice<Comment> comments = commentRepository.findByAuthorId(userId, pageable);
 
         log.info("Main-service. findUserComments success = {}", comments.getSize());
 
@@ -1,15 +1,18 @@
 package ru.practicum.compilation;
 
 import org.mapstruct.BeforeMapping;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import ru.practicum.event.EventMapper;
 import ru.practicum.compilation.dto.CompilationCreateDto;
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.config.CommonMapperConfiguration;
+import ru.practicum.location.LocationDto;
 
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 @Mapper(uses = EventMapper.class, config = CommonMapperConfiguration.class)
 public interface CompilationMapper {
@@ -35,9 +38,10 @@ public interface CompilationMapper {
     @Mapping(target = "events", source = "events", ignore = true)
     Compilation toEntity(CompilationCreateDto compilationCreateDto);
 
-    CompilationDto toDto(Compilation entity);
+    // Локации событий передаются заранее загруженными: Map<locationId, LocationDto>
+    CompilationDto toDto(Compilation entity, @Context Map<Long, LocationDto> locations);
 
-    List<CompilationDto> toDtoList(List<Compilation> compilations);
+    List<CompilationDto> toDtoList(List<Compilation> compilations, @Context Map<Long, LocationDto> locations);
 
 
 }
@@ -0,0 +1,62 @@
+package ru.practicum.compilation;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.compilation.dto.CompilationDto;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Кэш готовых страниц публичного списка подборок по ключу (pinned, from, size).
+ * Сбрасывается целиком после коммита изменений подборок, событий и справочников.
+ * Просмотры и число подтвержденных заявок в закэшированных событиях устаревают не дольше чем на TTL.
+ * Метрики доступны как cache.gets, cache.size и т.д. с тегом cache=compilations.
+ */
+@Component
+public class CompilationPageCache {
+
+    private final Cache<PageKey, List<CompilationDto>> pages;
+
+    public CompilationPageCache(MeterRegistry meterRegistry,
+                                @Value("${compilation-cache.max-size:1000}") long maxSize,
+                                @Value("${compilation-cache.ttl:PT1M}") Duration ttl) {
+        this.pages = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<PageKey, List<CompilationDto>>build(), "compilations");
+    }
+
+    public List<CompilationDto> get(Boolean pinned, int from, int size, Supplier<List<CompilationDto>> loader) {
+        return pages.get(new PageKey(pinned, from, size), key -> List.copyOf(loader.get()));
+    }
+
+    // Сброс после коммита, чтобы параллельное чтение не вернуло в кэш старые данные
+    public void evictAllAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pages.invalidateAll();
+                }
+            });
+        } else {
+            pages.invalidateAll();
+        }
+    }
+
+    @lombok.Value
+    private static class PageKey {
+        Boolean pinned;
+        int from;
+        int size;
+    }
+}
@@ -1,9 +1,30 @@
 package ru.practicum.compilation;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
-    Page<Compilation> findAllByPinned(Boolean pinned, Pageable pageable);
+
+    // Страница выбирается по id, события подгружаются отдельным запросом через граф:
+    // fetch join коллекции вместе с LIMIT/OFFSET Hibernate выполнил бы в памяти
+    @Query("select c.id from Compilation c where c.pinned = :pinned")
+    Slice<Long> findIdsByPinned(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    @Query("select c.id from Compilation c")
+    Slice<Long> findIdsBy(Pageable pageable);
+
+    @EntityGraph("compilation-with-events")
+    List<Compilation> findAllByIdIn(Collection<Long> ids, Sort sort);
+
+    @EntityGraph("compilation-with-events")
+    Optional<Compilation> findWithEventsById(Long id);
 }
@@ -3,13 +3,16 @@ package ru.practicum.compilation;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.event.Event;
+import ru.practicum.event.EventMapper;
 import ru.practicum.compilation.dto.CompilationCreateDto;
 import ru.practicum.compilation.dto.CompilationDto;
 import ru.practicum.compilation.dto.CompilationRequestParams;
@@ -17,6 +20,7 @@ import ru.practicum.event.EventRepository;
 import ru.practicum.exception.CompilationNotFoundException;
 
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -29,7 +33,10 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final CompilationMapper compilationMapper;
     private final EventRepository eventRepository;
+    private final EventMapper eventMapper;
     private final EntityManager entityManager;
+    private final CompilationPageCache compilationPageCache;
+    private final TransactionTemplate transactionTemplate;
 
 
     @Override
@@ -38,24 +45,25 @@ public class CompilationServiceImpl implements CompilationService {
         log.info("Main-service. Create compilations {}", compilationDto);
 
         Compilation compilation = compilationMapper.toEntity(compilationDto);
-        if (!compilationDto.getEvents().isEmpty()) {
-            compilation.setEvents(getEventsByIds(compilationDto.getEvents()));
-        }
+        compilation.setEvents(compilationDto.getEvents().isEmpty()
+                ? new HashSet<>()
+                : getEventsByIds(compilationDto.getEvents()));
         Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationPageCache.evictAllAfterCommit();
 
         log.info("Main-service. Create compilation success: id = {}", savedCompilation.getId());
-        return compilationMapper.toDto(savedCompilation);
+        return toDto(savedCompilation);
     }
 
     @Override
     public CompilationDto getById(Long compilationId) throws CompilationNotFoundException {
         log.info("Main-service. Get compilation by id = {}", compilationId);
 
-        Compilation compilation = compilationRepository.findById(compilationId)
+        Compilation compilation = compilationRepository.findWithEventsById(compilationId)
                 .orElseThrow(() -> new CompilationNotFoundException(String.format("Не найдена подборка с id=%d", compilationId)));
 
         log.info("Main-service. Get compilation by id success {}", compilation);
-        return compilationMapper.toDto(compilation);
+        return toDto(compilation);
     }
 
     @Override
@@ -67,28 +75,23 @@ public class CompilationServiceImpl implements CompilationService {
                 .orElseThrow(() -> new CompilationNotFoundException(String.format("Не найдена подборка с id=%d", compilationId)));
 
         compilationRepository.delete(compilation);
+        compilationPageCache.evictAllAfterCommit();
 
         log.info("Main-service. Delete compilation success id = {}", compilationId);
 
     }
 
+    // Попадание в кэш не открывает транзакцию и не обращается к БД и справочникам
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Collection<CompilationDto> findAll(CompilationRequestParams params) {
         log.info("Main-service. findAll compilation: {}", params);
 
-        Pageable pageable = PageRequest.of(
-                params.getFrom() / params.getSize(),
-                params.getSize(),
-                Sort.by("id").ascending()
-        );
-        Page<Compilation> page;
-        if (params.getPinned() != null) {
-            page = compilationRepository.findAllByPinned(params.getPinned(), pageable);
-        } else {
-            page = compilationRepository.findAll(pageable);
-        }
-        log.info("Main-service. findAll success: found {} compilations", page.getNumberOfElements());
-        return compilationMapper.toDtoList(page.getContent());
+        List<CompilationDto> compilations = compilationPageCache.get(params.getPinned(), params.getFrom(), params.getSize(),
+                () -> transactionTemplate.execute(status -> loadPage(params)));
+
+        log.info("Main-service. findAll success: found {} compilations", compilations.size());
+        return compilations;
     }
 
     @Override
@@ -107,8 +110,36 @@ public class CompilationServiceImpl implements CompilationService {
             compilation.setTitle(compilationCreateDto.getTitle());
         }
         Compilation savedCompilation = compilationRepository.save(compilation);
+        compilationPageCache.evictAllAfterCommit();
         log.info("Main-service. Update compilations id={} success: {}", compilationId, compilation);
-        return compilationMapper.toDto(savedCompilation);
+        return toDto(savedCompilation);
+    }
+
+    // Не больше трех запросов на страницу: id подборок, подборки с событиями, локации событий
+    private List<CompilationDto> loadPage(CompilationRequestParams params) {
+        Sort sort = Sort.by("id").ascending();
+        Pageable pageable = PageRequest.of(params.getFrom() / params.getSize(), params.getSize(), sort);
+        Slice<Long> ids;
+        if (params.getPinned() != null) {
+            ids = compilationRepository.findIdsByPinned(params.getPinned(), pageable);
+        } else {
+            ids = compilationRepository.findIdsBy(pageable);
+        }
+        if (!ids.hasContent()) {
+            return List.of();
+        }
+        return toDtos(compilationRepository.findAllByIdIn(ids.getContent(), sort));
+    }
+
+    private CompilationDto toDto(Compilation compilation) {
+        return compilationMapper.toDto(compilation, eventMapper.mapEventLocationsToDto(compilation.getEvents()));
+    }
+
+    private List<CompilationDto> toDtos(List<Compilation> compilations) {
+        List<Event> events = compilations.stream()
+                .flatMap(compilation -> compilation.getEvents().stream())
+                .toList();
+        return compilationMapper.toDtoList(compilations, eventMapper.mapEventLocationsToDto(events));
     }
 
     private Set<Event> getEventsByIds(Set<Long> ids) {
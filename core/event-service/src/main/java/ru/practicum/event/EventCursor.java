@@ -0,0 +1,49 @@
+package ru.practicum.event;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.pagination.CursorCodec;
+
+import java.time.LocalDateTime;
+
+/**
+ * Курсор keyset-пагинации событий: порядок выдачи и ключ (поле сортировки, id) последнего события страницы.
+ * Строка курсора собирается CursorCodec.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class EventCursor {
+
+    public enum Order {
+        ID,
+        EVENT_DATE,
+        VIEWS
+    }
+
+    private final Order order;
+    private final Long id;
+    private final LocalDateTime eventDate;
+    private final Long views;
+
+    public static EventCursor after(Order order, Event event) {
+        return new EventCursor(order, event.getId(), event.getEventDate(), event.getViews());
+    }
+
+    public String encode() {
+        String key = switch (order) {
+            case ID -> "";
+            case EVENT_DATE -> eventDate.toString();
+            case VIEWS -> views == null ? "" : views.toString();
+        };
+        return CursorCodec.encode(order, id, key);
+    }
+
+    public static EventCursor decode(String cursor, Order order) {
+        return CursorCodec.decode(cursor, order, (id, key) -> switch (order) {
+            case ID -> new EventCursor(order, id, null, null);
+            case EVENT_DATE -> new EventCursor(order, id, LocalDateTime.parse(key), null);
+            case VIEWS -> new EventCursor(order, id, null, key.isEmpty() ? null : Long.valueOf(key));
+        });
+    }
+}
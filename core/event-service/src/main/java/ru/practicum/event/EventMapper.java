@@ -1,30 +1,48 @@
 package ru.practicum.event;
 
 import lombok.RequiredArgsConstructor;
+import org.mapstruct.Context;
 import org.springframework.stereotype.Component;
 import ru.practicum.category.Category;
 import ru.practicum.category.CategoryDto;
 import ru.practicum.event.dto.EventDto;
 import ru.practicum.event.dto.EventDtoFull;
+import ru.practicum.event.dto.EventSnapshotDto;
 import ru.practicum.user.dto.UserDto;
+import ru.practicum.exception.CategoryNotFoundException;
 import ru.practicum.exception.LocationNotFound;
-import ru.practicum.feign.CategoryFeignClient;
-import ru.practicum.feign.UserFeignClient;
+import ru.practicum.exception.UserNotFoundException;
+import ru.practicum.feign.CategoryRepository;
+import ru.practicum.feign.UserRepository;
 import ru.practicum.location.Location;
 import ru.practicum.location.LocationDto;
 import ru.practicum.location.LocationRepository;
 import ru.practicum.user.User;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 @Component
 @RequiredArgsConstructor
 public class EventMapper {
 
-    private final CategoryFeignClient categoryRepository;
-    private final UserFeignClient userRepository;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
     private final LocationRepository locationRepository;
+    // Удаленные запросы справочников, см. RemoteCallExecutorConfig
+    private final ExecutorService remoteCallExecutor;
 
-    // EventDto
-    public EventDto toEventDto(Event event) {
+    // EventDto; локации загружаются заранее одним запросом на все события (mapEventLocationsToDto)
+    public EventDto toEventDto(Event event, @Context Map<Long, LocationDto> locations) {
         return EventDto.builder()
                 .id(event.getId())
                 .annotation(event.getAnnotation())
@@ -32,7 +50,7 @@ public class EventMapper {
                 .description(event.getDescription())
                 .eventDate(event.getEventDate())
                 .initiator(event.getInitiatorId())
-                .location(mapLocationIdToDto(event.getLocationId()))
+                .location(event.getLocationId() == null ? null : locations.get(event.getLocationId()))
                 .paid(event.getPaid())
                 .participantLimit(event.getParticipantLimit())
                 .requestModeration(event.getRequestModeration())
@@ -41,18 +59,59 @@ public class EventMapper {
                 .build();
     }
 
+    public Map<Long, LocationDto> mapEventLocationsToDto(Collection<Event> events) {
+        Set<Long> locationIds = events.stream()
+                .map(Event::getLocationId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        return locationIds.isEmpty() ? Map.of() : mapLocationIdsToDto(locationIds);
+    }
+
     // EventDtoFull (полные объекты)
     public EventDtoFull toEventFullDto(Event event) {
+        return toEventFullDto(event,
+                mapCategoryIdToDto(event.getCategoryId()),
+                mapUserIdToUserDto(event.getInitiatorId()),
+                mapLocationIdToDto(event.getLocationId()));
+    }
+
+    // EventDtoFull для списка: каждый справочник загружается одним пакетным запросом на все уникальные id,
+    // категории и пользователи запрашиваются параллельно с чтением локаций
+    public List<EventDtoFull> toEventFullDtos(List<Event> events) {
+        if (events.isEmpty()) {
+            return List.of();
+        }
+
+        Set<Long> categoryIds = collectIds(events, Event::getCategoryId);
+        Set<Long> userIds = collectIds(events, Event::getInitiatorId);
+        CompletableFuture<Map<Long, CategoryDto>> categories = CompletableFuture.supplyAsync(
+                () -> mapCategoryIdsToDto(categoryIds), remoteCallExecutor);
+        CompletableFuture<Map<Long, UserDto>> users = CompletableFuture.supplyAsync(
+                () -> mapUserIdsToUserDto(userIds), remoteCallExecutor);
+        Map<Long, LocationDto> locations = mapLocationIdsToDto(collectIds(events, Event::getLocationId));
+
+        Map<Long, CategoryDto> categoryById = join(categories);
+        Map<Long, UserDto> userById = join(users);
+
+        return events.stream()
+                .map(event -> toEventFullDto(event,
+                        event.getCategoryId() == null ? null : categoryById.get(event.getCategoryId()),
+                        event.getInitiatorId() == null ? null : userById.get(event.getInitiatorId()),
+                        event.getLocationId() == null ? null : locations.get(event.getLocationId())))
+                .toList();
+    }
+
+    private EventDtoFull toEventFullDto(Event event, CategoryDto category, UserDto initiator, LocationDto location) {
         return EventDtoFull.builder()
                 .id(event.getId())
                 .annotation(event.getAnnotation())
-                .category(mapCategoryIdToDto(event.getCategoryId()))
+                .category(category)
                 .confirmedRequests(event.getConfirmedRequests())
                 .createdOn(event.getCreatedOn())
                 .description(event.getDescription())
                 .eventDate(event.getEventDate())
-                .initiator(mapUserIdToUserDto(event.getInitiatorId()))
-                .location(mapLocationIdToDto(event.getLocationId()))
+                .initiator(initiator)
+                .location(location)
                 .paid(event.getPaid())
                 .participantLimit(event.getParticipantLimit())
                 .publishedOn(event.getPublishedOn())
@@ -63,6 +122,17 @@ public class EventMapper {
                 .build();
     }
 
+    // EventSnapshotDto для request-service: только собственные поля события, без обращения к справочникам
+    public EventSnapshotDto toEventSnapshotDto(Event event) {
+        return EventSnapshotDto.builder()
+                .id(event.getId())
+                .initiatorId(event.getInitiatorId())
+                .state(event.getState())
+                .participantLimit(event.getParticipantLimit())
+                .requestModeration(event.getRequestModeration())
+                .build();
+    }
+
     // Event из EventDto
     public Event toEvent(EventDto eventDto) {
         Event event = new Event();
@@ -177,6 +247,70 @@ public class EventMapper {
                 .build();
     }
 
+    protected Map<Long, CategoryDto> mapCategoryIdsToDto(Set<Long> categoryIds) {
+        Map<Long, Category> categories = categoryRepository.findAllByIds(categoryIds);
+        return categoryIds.stream()
+                .collect(Collectors.toMap(Function.identity(), id -> {
+                    Category category = Optional.ofNullable(categories.get(id))
+                            .orElseThrow(() -> new CategoryNotFoundException(
+                                    "Category with id=%d was not found".formatted(id)));
+                    return CategoryDto.builder()
+                            .id(category.getId())
+                            .name(category.getName())
+                            .build();
+                }));
+    }
+
+    protected Map<Long, UserDto> mapUserIdsToUserDto(Set<Long> userIds) {
+        Map<Long, User> users = userRepository.findAllByIds(userIds);
+        return userIds.stream()
+                .collect(Collectors.toMap(Function.identity(), id -> {
+                    User user = Optional.ofNullable(users.get(id))
+                            .orElseThrow(() -> new UserNotFoundException(
+                                    "User with id=%d was not found".formatted(id)));
+                    return UserDto.builder()
+                            .id(user.getId())
+                            .name(user.getName())
+                            .email(user.getEmail())
+                            .build();
+                }));
+    }
+
+    protected Map<Long, LocationDto> mapLocationIdsToDto(Set<Long> locationIds) {
+        Map<Long, LocationDto> locations = locationRepository.findAllById(locationIds).stream()
+                .collect(Collectors.toMap(Location::getId, location -> LocationDto.builder()
+                        .id(location.getId())
+                        .lat(location.getLat())
+                        .lon(location.getLon())
+                        .build()));
+        locationIds.stream()
+                .filter(id -> !locations.containsKey(id))
+                .findFirst()
+                .ifPresent(id -> {
+                    throw new LocationNotFound("Location with id " + id + " not found");
+                });
+        return locations;
+    }
+
+    private static Set<Long> collectIds(List<Event> events, Function<Event, Long> idGetter) {
+        return events.stream()
+                .map(idGetter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    // Возвращает результат асинхронного запроса, пробрасывая исходное исключение (например, из Feign)
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
     protected Long mapLocationDtoToId(LocationDto locationDto) {
         if (locationDto == null) {
             return null;
@@ -1,21 +1,25 @@
 package ru.practicum.event;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.enums.EventState;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecificationExecutor<Event> {
 
-    Page<Event> findAllByInitiatorId(Long userId, Pageable page);
+    Slice<Event> findAllByInitiatorId(Long userId, Pageable page);
 
     Page<Event> findAllByInitiatorIdIn(List<Long> userId, Pageable page);
 
@@ -28,4 +32,17 @@ public interface EventRepository extends JpaRepository<Event, Long>, JpaSpecific
                                                      @Param("initiatorId") Long initiatorId);
 
     boolean existsByCategoryId(Long categoryId);
+
+    List<Event> findAllByStateAndIdGreaterThanOrderById(EventState state, Long afterId, Limit limit);
+
+    List<Event> findAllByStateAndIdIn(EventState state, Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.views = :views WHERE e.id = :id")
+    int updateViews(@Param("id") Long id, @Param("views") Long views);
+
+    @Modifying
+    @Query("UPDATE Event e SET e.confirmedRequests = :confirmed, e.confirmedSeq = :seq " +
+            "WHERE e.id = :id AND (e.confirmedSeq IS NULL OR e.confirmedSeq < :seq)")
+    int updateConfirmedRequests(@Param("id") Long id, @Param("confirmed") Long confirmed, @Param("seq") Long seq);
 }
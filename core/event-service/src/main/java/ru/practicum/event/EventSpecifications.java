@@ -1,6 +1,8 @@
 package ru.practicum.event;
 
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 import org.springframework.data.jpa.domain.Specification;
 import ru.practicum.event.filter.EventFilterAdmin;
 import ru.practicum.event.filter.EventFilterPublic;
@@ -17,6 +19,7 @@ public class EventSpecifications {
 
             predicates.add(cb.equal(root.get("state"), EventState.PUBLISHED));
 
+            // На PostgreSQL LIKE по lower(...) обслуживается триграммными индексами (schema-postgresql.sql)
             if (filter.getText() != null && !filter.getText().isBlank()) {
                 String searchText = "%" + filter.getText().toLowerCase() + "%";
                 predicates.add(cb.or(
@@ -55,6 +58,54 @@ public class EventSpecifications {
         };
     }
 
+    // Сортировка по сходству text с аннотацией или описанием (pg_trgm word_similarity), только для PostgreSQL
+    public static Specification<Event> orderByTextRelevance(String text) {
+        return (root, query, cb) -> {
+            Expression<String> searchText = cb.literal(text.toLowerCase());
+            Expression<Double> relevance = cb.function("greatest", Double.class,
+                    cb.function("word_similarity", Double.class, searchText, cb.lower(root.get("annotation"))),
+                    cb.function("word_similarity", Double.class, searchText, cb.lower(root.get("description"))));
+            query.orderBy(cb.desc(relevance), cb.asc(root.get("id")));
+            return null;
+        };
+    }
+
+    public static Specification<Event> byInitiator(Long userId) {
+        return (root, query, cb) -> cb.equal(root.get("initiatorId"), userId);
+    }
+
+    // Порядок выдачи списков; по просмотрам события без проекции views идут последними
+    public static Specification<Event> orderBy(EventCursor.Order order) {
+        return (root, query, cb) -> {
+            HibernateCriteriaBuilder hcb = (HibernateCriteriaBuilder) cb;
+            switch (order) {
+                case ID -> query.orderBy(cb.asc(root.get("id")));
+                case EVENT_DATE -> query.orderBy(cb.asc(root.get("eventDate")), cb.asc(root.get("id")));
+                case VIEWS -> query.orderBy(hcb.desc(root.get("views"), false), cb.asc(root.get("id")));
+            }
+            return null;
+        };
+    }
+
+    // События строго после ключа курсора в порядке orderBy
+    public static Specification<Event> after(EventCursor cursor) {
+        return (root, query, cb) -> {
+            Predicate sameKeyNextId = cb.greaterThan(root.get("id"), cursor.getId());
+            return switch (cursor.getOrder()) {
+                case ID -> sameKeyNextId;
+                case EVENT_DATE -> cb.or(
+                        cb.greaterThan(root.get("eventDate"), cursor.getEventDate()),
+                        cb.and(cb.equal(root.get("eventDate"), cursor.getEventDate()), sameKeyNextId));
+                case VIEWS -> cursor.getViews() == null
+                        ? cb.and(cb.isNull(root.get("views")), sameKeyNextId)
+                        : cb.or(
+                        cb.lessThan(root.get("views"), cursor.getViews()),
+                        cb.and(cb.equal(root.get("views"), cursor.getViews()), sameKeyNextId),
+                        cb.isNull(root.get("views")));
+            };
+        };
+    }
+
     public static Specification<Event> forAdminFilter(EventFilterAdmin filter) {
         return (root, query, cb) -> {
             List<Predicate> predicates = new ArrayList<>();
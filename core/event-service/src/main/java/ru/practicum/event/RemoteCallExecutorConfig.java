@@ -0,0 +1,21 @@
+package ru.practicum.event;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Общий пул для параллельных удаленных запросов при сборке событий: справочники в EventMapper
+ * и просмотры из stats-server в EventServiceImpl. Задачи выполняются на виртуальных потоках,
+ * при остановке контекста пул закрывается и дожидается начатых запросов.
+ */
+@Configuration
+public class RemoteCallExecutorConfig {
+
+    @Bean(destroyMethod = "close")
+    public ExecutorService remoteCallExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
+    }
+}
@@ -3,6 +3,7 @@ package ru.practicum.event.controller;
 import jakarta.validation.Valid;
 import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.EventDto;
@@ -22,8 +23,8 @@ public class EventControllerAdmin {
     private final EventService eventService;
 
     @GetMapping
-    public List<EventDtoFull> findEvents(@Valid EventFilterAdmin eventFilterAdmin) throws FilterValidationException, EventDateException {
-        return eventService.findEventsByUsers(eventFilterAdmin);
+    public ResponseEntity<List<EventDtoFull>> findEvents(@Valid EventFilterAdmin eventFilterAdmin) throws FilterValidationException, EventDateException {
+        return eventService.findEventsByUsers(eventFilterAdmin).toResponseEntity();
     }
 
     @PatchMapping("{eventId}")
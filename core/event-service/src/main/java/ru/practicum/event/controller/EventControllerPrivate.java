@@ -1,9 +1,12 @@
 package ru.practicum.event.controller;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import jakarta.validation.groups.Default;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.dto.EventDto;
@@ -35,11 +38,12 @@ public class EventControllerPrivate {
     }
 
     @GetMapping
-    public List<EventDtoFull> findEventsByUser(@PathVariable @Positive Long userId,
-                                               @RequestParam(name = "from", defaultValue = "0") int from,
-                                               @RequestParam(name = "size", defaultValue = "10") int size) {
+    public ResponseEntity<List<EventDtoFull>> findEventsByUser(@PathVariable @Positive Long userId,
+                                                               @RequestParam(name = "from", defaultValue = "0") @PositiveOrZero int from,
+                                                               @RequestParam(name = "size", defaultValue = "10") @Positive @Max(1000) int size,
+                                                               @RequestParam(name = "cursor", required = false) String cursor) {
 
-        return eventService.findEventsByUserid(userId, from, size);
+        return eventService.findEventsByUserid(userId, from, size, cursor).toResponseEntity();
     }
 
     @GetMapping("/{eventId}")
@@ -60,8 +64,11 @@ public class EventControllerPrivate {
      *  Получение информации о запросах на участие в событии текущего пользователя
      */
     @GetMapping("/{eventId}/requests")
-    public List<RequestDto> getRequestsByOwnerOfEvent(@PathVariable @Positive Long userId, @PathVariable @Positive Long eventId) throws EventNotFoundException {
-        return requestService.getRequestsByOwnerOfEvent(userId, eventId);
+    public ResponseEntity<List<RequestDto>> getRequestsByOwnerOfEvent(@PathVariable @Positive Long userId,
+                                                                      @PathVariable @Positive Long eventId,
+                                                                      @RequestParam(name = "cursor", required = false) String cursor,
+                                                                      @RequestParam(name = "size", defaultValue = "10") @Positive @Max(1000) int size) throws EventNotFoundException {
+        return requestService.getRequestsByOwnerOfEvent(userId, eventId, cursor, size).toResponseEntity();
     }
 
     /**
@@ -1,5 +1,6 @@
 package ru.practicum.event.controller;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
@@ -8,11 +9,16 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.compilation.CompilationPageCache;
 import ru.practicum.event.Event;
 import ru.practicum.event.dto.EventDtoFull;
+import ru.practicum.event.dto.EventSnapshotDto;
 import ru.practicum.event.service.EventService;
 import ru.practicum.exception.CategoryIsRelatedToEventException;
 import ru.practicum.exception.EventNotFoundException;
+import ru.practicum.feign.CategoryRepository;
+import ru.practicum.feign.UserRepository;
+import ru.practicum.request.dto.ConfirmedRequestsUpdateDto;
 
 import java.util.List;
 import java.util.Set;
@@ -24,12 +30,21 @@ import java.util.Set;
 public class InternalEventController {
 
     private final EventService eventService;
+    private final CategoryRepository categoryRepository;
+    private final UserRepository userRepository;
+    private final CompilationPageCache compilationPageCache;
 
     @GetMapping("/{eventId}")
     public EventDtoFull findById(@PathVariable @NotNull final Long eventId) {
         return eventService.findById(eventId);
     }
 
+    // Облегченное представление события для проверки заявок в request-service
+    @GetMapping("/{eventId}/snapshot")
+    public EventSnapshotDto findSnapshotById(@PathVariable @NotNull final Long eventId) {
+        return eventService.findSnapshotById(eventId);
+    }
+
     @GetMapping("/{eventId}/user/{userId}")
     public Event findByIdAndInitiatorId(
             @PathVariable @NotNull final Long eventId,
@@ -67,4 +82,29 @@ public class InternalEventController {
     public void deleteEvent(final @PathVariable @Positive Long eventId) throws CategoryIsRelatedToEventException {
         eventService.delete(eventId);
     }
+
+    // Счетчик подтвержденных заявок из request-service, устаревшие номера изменений игнорируются
+    @PutMapping("/{eventId}/confirmed")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void updateConfirmedRequests(
+            @PathVariable @NotNull final Long eventId,
+            @RequestBody @Valid final ConfirmedRequestsUpdateDto update
+    ) {
+        eventService.updateConfirmedRequests(eventId, update);
+    }
+
+    // Уведомления об изменении справочников: сбрасывают локальные кэши event-service
+    @DeleteMapping(path = "/cache/category/{categoryId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void evictCategory(final @PathVariable @Positive Long categoryId) {
+        categoryRepository.evict(categoryId);
+        compilationPageCache.evictAllAfterCommit();
+    }
+
+    @DeleteMapping(path = "/cache/user/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void evictUser(final @PathVariable @Positive Long userId) {
+        userRepository.evict(userId);
+        compilationPageCache.evictAllAfterCommit();
+    }
 }
@@ -3,24 +3,32 @@ package ru.practicum.event.service;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.validation.BeanPropertyBindingResult;
 import org.springframework.validation.Errors;
 import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
+import ru.practicum.compilation.CompilationPageCache;
+import ru.practicum.enums.EventSort;
 import ru.practicum.enums.EventState;
 import ru.practicum.enums.EventStateAction;
 import ru.practicum.event.Event;
+import ru.practicum.event.EventCursor;
 import ru.practicum.event.EventMapper;
 import ru.practicum.event.EventRepository;
 import ru.practicum.event.EventSpecifications;
 import ru.practicum.event.dto.EventDto;
 import ru.practicum.event.dto.EventDtoFull;
+import ru.practicum.event.dto.EventSnapshotDto;
 import ru.practicum.event.filter.EventFilterAdmin;
 import ru.practicum.event.filter.EventFilterBase;
 import ru.practicum.event.filter.EventFilterPublic;
@@ -28,16 +36,21 @@ import ru.practicum.exception.*;
 import ru.practicum.feign.RequestService;
 import ru.practicum.location.Location;
 import ru.practicum.location.LocationRepository;
-import ru.practicum.request.dto.ConfirmedRequestsCount;
+import ru.practicum.pagination.CursorPage;
+import ru.practicum.request.dto.ConfirmedRequestsUpdateDto;
 import ru.practicum.stats.ClientRestStat;
 import ru.practicum.stats.EndpointHitDto;
 import ru.practicum.stats.ViewStatsDto;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
@@ -51,7 +64,18 @@ public class EventServiceImpl implements EventService {
     private final EventMapper eventMapper;
     private final Validator validator;
     private final LocationRepository locationRepository;
-    private final RequestService requestRepository;
+    private final CompilationPageCache compilationPageCache;
+    private final RequestService requestService;
+    private final EventViewerCache eventViewerCache;
+    // Запросы к stats-server, см. RemoteCallExecutorConfig
+    private final ExecutorService remoteCallExecutor;
+
+    @Value("${event.stats.timeout:PT2S}")
+    private Duration statsTimeout;
+
+    // Ранжирование через pg_trgm доступно только на PostgreSQL, в H2 остается поиск LIKE без ранжирования
+    @Value("${event.search.trigram-ranking:false}")
+    private boolean trigramRanking;
 
     private void validateFilter(EventFilterBase filter) throws FilterValidationException, EventDateException {
 
@@ -87,92 +111,80 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-    private List<EventDtoFull> getDtoFullList(Page<Event> pageEvents) {
-        return pageEvents.stream()
-                .map(eventMapper::toEventFullDto)
-                .collect(Collectors.toList());
+    private List<EventDtoFull> getDtoFullList(Slice<Event> pageEvents) {
+        return eventMapper.toEventFullDtos(pageEvents.getContent());
     }
 
     private void addHit(HttpServletRequest request) {
-        EndpointHitDto endpointHitDto = EndpointHitDto.builder()
+        clientRestStat.addStat(toEndpointHit(request));
+    }
+
+    private EndpointHitDto toEndpointHit(HttpServletRequest request) {
+        return EndpointHitDto.builder()
                 .app("main-service")
                 .uri(request.getRequestURI())
                 .ip(request.getRemoteAddr())
                 .timestamp(LocalDateTime.now())
                 .build();
-        clientRestStat.addStat(endpointHitDto);
     }
 
-    private void enrichEventsWithConfirmedRequests(List<EventDtoFull> events) {
+    // Просмотры из stats-server запрашиваются параллельно с загрузкой справочников в EventMapper.
+    // По истечении event.stats.timeout результат - null, у событий остается проекция views.
+    // При ошибке клиент статистики возвращает пустой список, его учитывает applyViews
+    private CompletableFuture<Map<String, Long>> fetchViewsAsync(List<Event> events, LocalDateTime start, LocalDateTime end) {
         if (events.isEmpty()) {
-            return;
+            return CompletableFuture.completedFuture(Map.of());
         }
-        List<Long> eventIds = events.stream()
-                .map(EventDtoFull::getId)
-                .collect(Collectors.toList());
-
-        List<ConfirmedRequestsCount> results = requestRepository.findConfirmedRequestsCountByEventIds(eventIds);
-        Map<Long, Long> confirmedRequestsMap = results.stream()
-                .collect(Collectors.toMap(
-                        ConfirmedRequestsCount::getEventId,
-                        ConfirmedRequestsCount::getCount
-                ));
-
-        events.forEach(event -> {
-            Long confirmedRequests = confirmedRequestsMap.getOrDefault(event.getId(), 0L);
-            event.setConfirmedRequests(confirmedRequests);
-        });
+        List<String> uris = events.stream()
+                .map(event -> "/events/" + event.getId())
+                .toList();
+        return CompletableFuture.supplyAsync(() -> clientRestStat.getStat(start, end, uris, true).stream()
+                        .collect(Collectors.toMap(ViewStatsDto::getUri, ViewStatsDto::getHits, Math::max)),
+                        remoteCallExecutor)
+                .completeOnTimeout(null, statsTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Main-service. fetchViews failed: {}", e.getMessage());
+                    return null;
+                });
     }
 
-    // Получение статистики по списку событий и обогащение views
-    private void enrichEventsWithViews(List<EventDtoFull> events, EventFilterAdmin eventFilter) {
-        if (events.isEmpty()) {
+    private void applyViews(List<EventDtoFull> events, CompletableFuture<Map<String, Long>> views) {
+        Map<String, Long> viewsByUri = views.join();
+        if (viewsByUri == null) {
+            log.warn("Main-service. stats-server did not answer in {}, views projection is used", statsTimeout);
             return;
         }
-        List<Long> eventIds = events.stream()
-                .map(EventDtoFull::getId)
-                .toList();
-
-        List<String> uris = eventIds.stream()
-                .map(id -> "/events/" + id)
-                .collect(Collectors.toList());
-
-        LocalDateTime start = eventFilter.getRangeStart() != null ? eventFilter.getRangeStart() : LocalDateTime.now().minusDays(1);
-        LocalDateTime end = eventFilter.getRangeEnd() != null ? eventFilter.getRangeEnd() : LocalDateTime.now().plusDays(1);
-
-        List<ViewStatsDto> stats = clientRestStat.getStat(start, end, uris, true);
-
-        Map<String, Long> viewsByUri = stats.stream()
-                .collect(Collectors.toMap(
-                        ViewStatsDto::getUri,
-                        ViewStatsDto::getHits
-                ));
-
-        events.forEach(event -> {
-            String eventUri = "/events/" + event.getId();
-            Long views = viewsByUri.getOrDefault(eventUri, 0L);
-            event.setViews(views);
-        });
+        // Просмотры только растут, поэтому ответ меньше проекции (в том числе пустой при ошибке) ее не уменьшает
+        events.forEach(event -> event.setViews(Math.max(viewsByUri.getOrDefault("/events/" + event.getId(), 0L),
+                event.getViews() == null ? 0L : event.getViews())));
     }
 
     // Admin
     @Override
-    public List<EventDtoFull> findEventsByUsers(EventFilterAdmin eventFilter) throws FilterValidationException, EventDateException {
+    public CursorPage<EventDtoFull> findEventsByUsers(EventFilterAdmin eventFilter) throws FilterValidationException, EventDateException {
         validateFilter(eventFilter);
 
         log.info("Main-service. findEventsByUsers input: filter = {}", eventFilter);
 
         Specification<Event> specification = EventSpecifications.forAdminFilter(eventFilter);
 
-        Pageable pageable = PageRequest.of(eventFilter.getFrom() / eventFilter.getSize(), eventFilter.getSize());
+        CursorPage<Event> found;
+        if (eventFilter.getCursor() != null) {
+            found = findCursorPage(specification, EventCursor.Order.ID, eventFilter.getCursor(), eventFilter.getSize());
+        } else {
+            Pageable pageable = PageRequest.of(eventFilter.getFrom() / eventFilter.getSize(), eventFilter.getSize());
+            Slice<Event> pageEvents = eventRepository.findBy(specification, query -> query.slice(pageable));
+            found = new CursorPage<>(pageEvents.getContent(), null);
+        }
 
-        Page<Event> pageEvents = eventRepository.findAll(specification, pageable);
-        final List<EventDtoFull> events = getDtoFullList(pageEvents);
+        LocalDateTime start = eventFilter.getRangeStart() != null ? eventFilter.getRangeStart() : LocalDateTime.now().minusDays(1);
+        LocalDateTime end = eventFilter.getRangeEnd() != null ? eventFilter.getRangeEnd() : LocalDateTime.now().plusDays(1);
+        CompletableFuture<Map<String, Long>> views = fetchViewsAsync(found.getItems(), start, end);
 
-        enrichEventsWithConfirmedRequests(events);
-        enrichEventsWithViews(events, eventFilter);
+        CursorPage<EventDtoFull> events = found.map(eventMapper::toEventFullDtos);
+        applyViews(events.getItems(), views);
 
-        log.info("Main-service. findEventsByUsers success: size = {}", events.size());
+        log.info("Main-service. findEventsByUsers success: size = {}", events.getItems().size());
 
         return events;
     }
@@ -217,6 +229,8 @@ public class EventServiceImpl implements EventService {
 
         eventMapper.updateEventFromDto(eventDto, event);
         Event updatedEvent = eventRepository.save(event);
+        compilationPageCache.evictAllAfterCommit();
+        evictFromRequestServiceAfterCommit(updatedEvent.getId());
 
         log.info("Main-service. updateEventById success: id = {}", updatedEvent.getId());
         return eventMapper.toEventFullDto(updatedEvent);
@@ -284,15 +298,21 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    public List<EventDtoFull> findEventsByUserid(Long userId, int from, int size) {
-        log.info("Main-service. findEventsByUserid input: userId = {}, from = {}, size = {}", userId, from, size);
-
-        Pageable pageable = PageRequest.of(from / size, size);
-
-        Page<Event> pageEvents = eventRepository.findAllByInitiatorId(userId, pageable);
-        final List<EventDtoFull> events = getDtoFullList(pageEvents);
+    public CursorPage<EventDtoFull> findEventsByUserid(Long userId, int from, int size, String cursor) {
+        log.info("Main-service. findEventsByUserid input: userId = {}, from = {}, size = {}, cursor = {}",
+                userId, from, size, cursor);
+
+        CursorPage<EventDtoFull> events;
+        if (cursor != null) {
+            events = findCursorPage(EventSpecifications.byInitiator(userId), EventCursor.Order.ID, cursor, size)
+                    .map(eventMapper::toEventFullDtos);
+        } else {
+            Pageable pageable = PageRequest.of(from / size, size);
+            Slice<Event> pageEvents = eventRepository.findAllByInitiatorId(userId, pageable);
+            events = new CursorPage<>(getDtoFullList(pageEvents), null);
+        }
 
-        log.info("Main-service. findEventsByUserid success: id = {}", events.size());
+        log.info("Main-service. findEventsByUserid success: id = {}", events.getItems().size());
 
         return events;
     }
@@ -326,6 +346,8 @@ public class EventServiceImpl implements EventService {
             }
         }
         Event updatedEvent = eventRepository.save(existingEvent);
+        compilationPageCache.evictAllAfterCommit();
+        evictFromRequestServiceAfterCommit(updatedEvent.getId());
 
         log.info("Main-service. updateEventByUserId success: eventId = {}", updatedEvent.getId());
 
@@ -334,7 +356,7 @@ public class EventServiceImpl implements EventService {
 
     //Public
     @Override
-    public List<EventDtoFull> findEvents(EventFilterPublic eventFilter, HttpServletRequest request) throws
+    public CursorPage<EventDtoFull> findEvents(EventFilterPublic eventFilter, HttpServletRequest request) throws
             FilterValidationException, EventDateException {
         validateFilter(eventFilter);
 
@@ -344,30 +366,77 @@ public class EventServiceImpl implements EventService {
         addHit(request);
 
         Specification<Event> specification = EventSpecifications.forPublicFilter(eventFilter);
-        Pageable pageable = PageRequest.of(eventFilter.getFrom() / eventFilter.getSize(), eventFilter.getSize());
-        Page<Event> pageEvents = eventRepository.findAll(specification, pageable);
-        final List<EventDtoFull> events = getDtoFullList(pageEvents);
+        EventCursor.Order order = publicOrder(eventFilter.getSort());
+
+        CursorPage<EventDtoFull> events;
+        if (eventFilter.getCursor() != null) {
+            events = findCursorPage(specification, order, eventFilter.getCursor(), eventFilter.getSize())
+                    .map(eventMapper::toEventFullDtos);
+        } else {
+            // Без явной сортировки результаты поиска по тексту упорядочиваются по релевантности
+            if (trigramRanking && eventFilter.getSort() == null
+                    && eventFilter.getText() != null && !eventFilter.getText().isBlank()) {
+                specification = specification.and(EventSpecifications.orderByTextRelevance(eventFilter.getText()));
+            } else {
+                specification = specification.and(EventSpecifications.orderBy(order));
+            }
+            Pageable pageable = PageRequest.of(eventFilter.getFrom() / eventFilter.getSize(), eventFilter.getSize());
+            Slice<Event> pageEvents = eventRepository.findBy(specification, query -> query.slice(pageable));
+            events = new CursorPage<>(getDtoFullList(pageEvents), null);
+        }
 
-        log.info("Main-service. findEventsByUsers success: size = {}", events.size());
+        log.info("Main-service. findEventsByUsers success: size = {}", events.getItems().size());
 
         return events;
     }
 
+    // Сортировка по просмотрам идет по колонке views, которую обновляет EventViewsRefresher
+    private EventCursor.Order publicOrder(EventSort sort) {
+        if (sort == EventSort.VIEWS) {
+            return EventCursor.Order.VIEWS;
+        }
+        if (sort == EventSort.EVENT_DATE) {
+            return EventCursor.Order.EVENT_DATE;
+        }
+        return EventCursor.Order.ID;
+    }
+
+    // Keyset-страница: size + 1 строк без OFFSET и COUNT, лишняя строка означает, что есть продолжение
+    private CursorPage<Event> findCursorPage(Specification<Event> specification, EventCursor.Order order,
+                                             String cursor, int size) {
+        if (!cursor.isEmpty()) {
+            specification = specification.and(EventSpecifications.after(EventCursor.decode(cursor, order)));
+        }
+        List<Event> events = eventRepository.findBy(specification.and(EventSpecifications.orderBy(order)),
+                query -> query.limit(size + 1).all());
+        if (events.size() <= size) {
+            return new CursorPage<>(events, null);
+        }
+        List<Event> page = events.subList(0, size);
+        return new CursorPage<>(page, EventCursor.after(order, page.getLast()).encode());
+    }
+
     @Override
     public EventDtoFull findEventById(Long eventId, HttpServletRequest request) throws EventNotFoundException {
         log.info("Main-service. findEventById input: eventId = {}", eventId);
 
-        // вызов stat-client
+        // вызов stat-client: хит уходит через буфер, ответ не ждет stats-server
         addHit(request);
 
         Event event = eventRepository.findByIdAndState(eventId, EventState.PUBLISHED).orElseThrow(() -> new EventNotFoundException("event with id " + eventId + " not found"));
+        boolean firstView = eventViewerCache.isFirstView(eventId, request.getRemoteAddr());
 
         log.info("Main-service. findEventById success: eventId = {}", event.getId());
 
+        // просмотры из статистики запрашиваются, пока загружаются категория, инициатор и локация
+        CompletableFuture<Map<String, Long>> views = fetchViewsAsync(List.of(event),
+                LocalDateTime.now().minusMinutes(1), LocalDateTime.now().plusMinutes(1));
         EventDtoFull eventDto = eventMapper.toEventFullDto(event);
-
-        // добавляем views из статистики
-        enrichEventWithAdditionalData(eventDto);
+        applyViews(List.of(eventDto), views);
+        // текущий просмотр еще лежит в буфере клиента статистики
+        if (firstView) {
+            eventDto.setViews(eventDto.getViews() == null ? 1L : eventDto.getViews() + 1);
+        }
 
         return eventDto;
     }
@@ -378,6 +447,12 @@ public class EventServiceImpl implements EventService {
                 .orElseThrow(() -> new EventNotFoundException("Событие не найдено с ID %d".formatted(eventId))));
     }
 
+    @Override
+    public EventSnapshotDto findSnapshotById(final Long eventId) {
+        return eventMapper.toEventSnapshotDto(eventRepository.findById(eventId)
+                .orElseThrow(() -> new EventNotFoundException("Событие не найдено с ID %d".formatted(eventId))));
+    }
+
     @Override
     public Optional<Event> findByIdAndInitiatorId(final Long eventId, final Long userId) {
         return eventRepository.findByIdAndInitiatorId(eventId, userId);
@@ -409,31 +484,25 @@ public class EventServiceImpl implements EventService {
     @Override
     public void delete(final Long eventId) {
         eventRepository.deleteById(eventId);
+        compilationPageCache.evictAllAfterCommit();
+        evictFromRequestServiceAfterCommit(eventId);
     }
 
-    private void enrichEventWithAdditionalData(EventDtoFull event) {
-        Long confirmedRequests = requestRepository.countConfirmedRequests(event.getId());
-        log.info("Main-service. enrichEvent: eventId = {}, confirmedRequests = {} ",
-                event.getId(), confirmedRequests);
-        event.setConfirmedRequests(confirmedRequests);
-
-        String uri = "/events/" + event.getId();
-
-        LocalDateTime start = LocalDateTime.now().minusMinutes(1);
-        LocalDateTime end = LocalDateTime.now().plusMinutes(1);
-
-        List<ViewStatsDto> stats = clientRestStat.getStat(
-                start,
-                end,
-                List.of(uri),
-                true
-        );
-
-        log.info("Main-service. enrichEvent: stats response for uri {} = {}", uri, stats);
+    @Override
+    @Transactional
+    public void updateConfirmedRequests(final Long eventId, final ConfirmedRequestsUpdateDto update) {
+        int updated = eventRepository.updateConfirmedRequests(eventId, update.getConfirmed(), update.getSeq());
+        log.debug("Main-service. updateConfirmedRequests: eventId = {}, update = {}, applied = {}",
+                eventId, update, updated > 0);
+    }
 
-        Long views = stats.isEmpty() ? 0L : stats.get(0).getHits();
-        log.info("Main-service. enrichEvent: eventId = {}, hits = {} ",
-                event.getId(), views);
-        event.setViews(views);
+    // Снимок события в request-service сбрасывается после фиксации, чтобы он не перечитал старое значение
+    private void evictFromRequestServiceAfterCommit(final Long eventId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                requestService.evictEvent(eventId);
+            }
+        });
     }
-}
\ No newline at end of file
+}
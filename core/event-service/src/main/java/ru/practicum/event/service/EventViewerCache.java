@@ -0,0 +1,43 @@
+package ru.practicum.event.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * IP, которым этот экземпляр уже отдавал событие. Хит GET /events/{id} уходит в stats-server через буфер клиента
+ * и в ответе stats-server еще не учтен, поэтому первый просмотр события с IP добавляется к views локально.
+ * Запись живет дольше, чем хит лежит в буфере (event-viewers.ttl). Первый просмотр с IP, уже учтенного
+ * другим экземпляром, в ответе этого экземпляра завышает views на единицу.
+ * Метрики доступны как cache.gets, cache.size и т.д. с тегом cache=event-viewers.
+ */
+@Component
+public class EventViewerCache {
+
+    private final Cache<ViewerKey, Boolean> viewers;
+
+    public EventViewerCache(MeterRegistry meterRegistry,
+                            @Value("${event-viewers.max-size:100000}") long maxSize,
+                            @Value("${event-viewers.ttl:PT1H}") Duration ttl) {
+        this.viewers = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<ViewerKey, Boolean>build(), "event-viewers");
+    }
+
+    public boolean isFirstView(Long eventId, String ip) {
+        return viewers.asMap().putIfAbsent(new ViewerKey(eventId, ip), Boolean.TRUE) == null;
+    }
+
+    @lombok.Value
+    private static class ViewerKey {
+        Long eventId;
+        String ip;
+    }
+}
@@ -0,0 +1,135 @@
+package ru.practicum.event.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.Event;
+import ru.practicum.event.EventRepository;
+import ru.practicum.stats.ClientRestStat;
+import ru.practicum.stats.ViewStatsDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Обновляет колонку event.views - проекцию просмотров из сервера статистики,
+ * по которой публичный поиск сортирует события (sort=VIEWS) прямо в БД.
+ * Первый запуск обходит все опубликованные события порциями по id, следующие - только события,
+ * у которых в stats-server появились хиты с прошлого запуска (с запасом event.views.lag на буфер клиента
+ * статистики и расхождение часов). Запросы в stats-server выполняются вне транзакции.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventViewsRefresher {
+
+    private static final Pattern EVENT_URI = Pattern.compile("/events/(\\d+)");
+
+    private final EventRepository eventRepository;
+    private final ClientRestStat clientRestStat;
+    private final TransactionTemplate transactionTemplate;
+
+    // Ограничено длиной строки запроса к stats-server
+    @Value("${event.views.chunk-size:100}")
+    private int chunkSize;
+
+    @Value("${event.views.lag:PT1M}")
+    private Duration lag;
+
+    // Начало окна следующего инкрементального запуска; null - нужен полный обход
+    private LocalDateTime since;
+
+    @Scheduled(fixedDelayString = "${event.views.refresh-interval:PT1M}")
+    public void refresh() {
+        LocalDateTime now = LocalDateTime.now();
+        int updated = since == null ? refreshAll() : refreshHitSince(since, now);
+        if (updated >= 0) {
+            since = now.minus(lag);
+        }
+
+        if (updated > 0) {
+            log.info("Main-service. refresh views success: updated {} events", updated);
+        }
+    }
+
+    private int refreshAll() {
+        long afterId = 0;
+        int updated = 0;
+        List<Event> events;
+        do {
+            events = eventRepository.findAllByStateAndIdGreaterThanOrderById(
+                    EventState.PUBLISHED, afterId, Limit.of(chunkSize));
+            if (events.isEmpty()) {
+                break;
+            }
+            updated += refreshChunk(events);
+            afterId = events.getLast().getId();
+        } while (events.size() == chunkSize);
+        return updated;
+    }
+
+    // -1, если хитов за окно нет: клиент статистики при ошибке тоже возвращает пустой список,
+    // поэтому окно не сдвигается и следующий запуск повторит его
+    private int refreshHitSince(LocalDateTime from, LocalDateTime now) {
+        List<ViewStatsDto> hits = clientRestStat.getStat(from, now, null, false);
+        if (hits.isEmpty()) {
+            return -1;
+        }
+        List<Long> ids = hits.stream()
+                .map(ViewStatsDto::getUri)
+                .map(EVENT_URI::matcher)
+                .filter(Matcher::matches)
+                .map(matcher -> Long.parseLong(matcher.group(1)))
+                .distinct()
+                .toList();
+
+        int updated = 0;
+        for (int i = 0; i < ids.size(); i += chunkSize) {
+            List<Event> events = eventRepository.findAllByStateAndIdIn(EventState.PUBLISHED,
+                    ids.subList(i, Math.min(i + chunkSize, ids.size())));
+            if (!events.isEmpty()) {
+                updated += refreshChunk(events);
+            }
+        }
+        return updated;
+    }
+
+    private int refreshChunk(List<Event> events) {
+        LocalDateTime start = events.stream()
+                .map(Event::getPublishedOn)
+                .filter(Objects::nonNull)
+                .min(Comparator.naturalOrder())
+                .orElse(LocalDateTime.now().minusYears(1));
+        List<String> uris = events.stream()
+                .map(event -> "/events/" + event.getId())
+                .toList();
+
+        Map<String, Long> viewsByUri = clientRestStat.getStat(start, LocalDateTime.now(), uris, true).stream()
+                .collect(Collectors.toMap(ViewStatsDto::getUri, ViewStatsDto::getHits, Math::max));
+
+        // Просмотры только растут, а клиент статистики при ошибке возвращает пустой список,
+        // поэтому значение обновляется лишь в большую сторону (пустое - заполняется всегда)
+        Map<Long, Long> changed = events.stream()
+                .filter(event -> event.getViews() == null
+                        || viewsByUri.getOrDefault("/events/" + event.getId(), 0L) > event.getViews())
+                .collect(Collectors.toMap(Event::getId,
+                        event -> viewsByUri.getOrDefault("/events/" + event.getId(), 0L)));
+        if (changed.isEmpty()) {
+            return 0;
+        }
+        transactionTemplate.executeWithoutResult(status -> changed.forEach(eventRepository::updateViews));
+        return changed.size();
+    }
+}
@@ -1,16 +1,31 @@
 package ru.practicum.feign;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.category.Category;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 public class CategoryRepository {
 
     private final CategoryFeignClient categoryFeignClient;
+    private final Cache<Long, Category> categoryCache;
 
     public Category findById(final Long categoryId) {
-        return categoryFeignClient.findById(categoryId);
+        return categoryCache.get(categoryId, categoryFeignClient::findById);
+    }
+
+    // Из category-service запрашиваются только отсутствующие в кэше id
+    public Map<Long, Category> findAllByIds(final Set<Long> categoryIds) {
+        return categoryCache.getAll(categoryIds, missing -> categoryFeignClient.findAllByIds(new HashSet<>(missing)));
+    }
+
+    public void evict(final Long categoryId) {
+        categoryCache.invalidate(categoryId);
     }
 }
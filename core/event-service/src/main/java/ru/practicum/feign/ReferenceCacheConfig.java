@@ -0,0 +1,47 @@
+package ru.practicum.feign;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.category.Category;
+import ru.practicum.user.User;
+
+import java.time.Duration;
+
+/**
+ * Локальные кэши справочников из category-service и user-service.
+ * Записи сбрасываются по уведомлению сервиса-владельца, а TTL ограничивает устаревание,
+ * если уведомление не дошло (например, до другого экземпляра event-service).
+ * Метрики доступны как cache.gets, cache.size и т.д. с тегом cache=categories/users.
+ */
+@Configuration
+public class ReferenceCacheConfig {
+
+    @Value("${reference-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${reference-cache.ttl:PT10M}")
+    private Duration ttl;
+
+    @Bean
+    public Cache<Long, Category> categoryCache(MeterRegistry meterRegistry) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, newCache(), "categories");
+    }
+
+    @Bean
+    public Cache<Long, User> userCache(MeterRegistry meterRegistry) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, newCache(), "users");
+    }
+
+    private <V> Cache<Long, V> newCache() {
+        return Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+}
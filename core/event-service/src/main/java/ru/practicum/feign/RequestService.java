@@ -1,8 +1,10 @@
 package ru.practicum.feign;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
-import ru.practicum.request.dto.ConfirmedRequestsCount;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.request.dto.RequestDto;
 import ru.practicum.request.dto.RequestStatusUpdateDto;
 import ru.practicum.request.dto.RequestStatusUpdateResultDto;
@@ -11,15 +13,20 @@ import java.util.List;
 
 @Component
 @RequiredArgsConstructor
+@Slf4j
 public class RequestService {
 
     private final RequestFeignClient requestFeignClient;
 
-    public List<RequestDto> getRequestsByOwnerOfEvent(
+    // Курсор следующей страницы request-service возвращает в заголовке X-Next-Cursor
+    public CursorPage<RequestDto> getRequestsByOwnerOfEvent(
             final Long userId,
-            final Long eventId
+            final Long eventId,
+            final String cursor,
+            final int size
     ) {
-        return requestFeignClient.getRequestsByOwnerOfEvent(userId, eventId);
+        ResponseEntity<List<RequestDto>> response = requestFeignClient.getRequestsByOwnerOfEvent(userId, eventId, cursor, size);
+        return new CursorPage<>(response.getBody(), response.getHeaders().getFirst(CursorPage.NEXT_CURSOR_HEADER));
     }
 
     public RequestStatusUpdateResultDto updateRequests(
@@ -30,11 +37,12 @@ public class RequestService {
         return requestFeignClient.updateRequest(userId, eventId, requestStatusUpdateDto);
     }
 
-    public List<ConfirmedRequestsCount> findConfirmedRequestsCountByEventIds(final List<Long> eventIds) {
-        return requestFeignClient.findConfirmedRequestsCountByEventIds(eventIds);
-    }
-
-    public Long countConfirmedRequests(final Long eventId) {
-        return requestFeignClient.countConfirmedRequests(eventId);
+    // Ошибка уведомления не отменяет изменение события: снимок в request-service устареет не дольше своего TTL
+    public void evictEvent(final Long eventId) {
+        try {
+            requestFeignClient.evictEvent(eventId);
+        } catch (RuntimeException e) {
+            log.warn("Main-service. evictEvent failed: id = {}, {}", eventId, e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -1,16 +1,31 @@
 package ru.practicum.feign;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import ru.practicum.user.User;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 @Component
 @RequiredArgsConstructor
 public class UserRepository {
 
     private final UserFeignClient userFeignClient;
+    private final Cache<Long, User> userCache;
 
     public User findById(final Long userId) {
-        return userFeignClient.findById(userId);
+        return userCache.get(userId, userFeignClient::findById);
     };
+
+    // Из user-service запрашиваются только отсутствующие в кэше id
+    public Map<Long, User> findAllByIds(final Set<Long> userIds) {
+        return userCache.getAll(userIds, missing -> userFeignClient.findAllByIds(new HashSet<>(missing)));
+    }
+
+    public void evict(final Long userId) {
+        userCache.invalidate(userId);
+    }
 }
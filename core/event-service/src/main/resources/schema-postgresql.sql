@@ -0,0 +1,7 @@
+-- Триграммные индексы для публичного поиска по тексту (text): ускоряют LIKE '%...%' по lower(annotation)
+-- и lower(description) и используются для ранжирования по word_similarity.
+-- Выполняется после schema.sql (spring.sql.init.schema-locations)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_event_annotation_trgm ON event USING GIN (lower(annotation) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_event_description_trgm ON event USING GIN (lower(description) gin_trgm_ops);
@@ -3,7 +3,9 @@ CREATE TABLE IF NOT EXISTS event
     id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     annotation          VARCHAR(2000),
     category_id         BIGINT,
+    -- число подтвержденных заявок, присылает request-service вместе с номером изменения confirmed_seq
     confirmed_requests  BIGINT,
+    confirmed_seq       BIGINT,
     description         VARCHAR(7000),
     event_date          TIMESTAMP WITHOUT TIME ZONE,
     created_on          TIMESTAMP WITHOUT TIME ZONE,
@@ -15,10 +17,18 @@ CREATE TABLE IF NOT EXISTS event
     request_moderation  BOOLEAN,
     state               VARCHAR(50),
     title               VARCHAR(120),
-    -- расчетное поле из сервиса статистики, в бд не пересчитывается
+    -- проекция просмотров из сервиса статистики, обновляется EventViewsRefresher
     views               BIGINT
 );
 
+ALTER TABLE event ADD COLUMN IF NOT EXISTS confirmed_seq BIGINT;
+
+-- порядок sort=VIEWS: события без проекции просмотров последними, совпадает с EventSpecifications.orderBy
+DROP INDEX IF EXISTS idx_event_state_views;
+CREATE INDEX IF NOT EXISTS idx_event_state_views_nulls_last ON event (state, views DESC NULLS LAST, id);
+CREATE INDEX IF NOT EXISTS idx_event_state_event_date ON event (state, event_date);
+CREATE INDEX IF NOT EXISTS idx_event_initiator_id ON event (initiator_id, id);
+
 CREATE TABLE IF NOT EXISTS compilation
 (
     id     BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -0,0 +1,143 @@
+package ru.practicum;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.comment.Comment;
+import ru.practicum.comment.CommentRepository;
+import ru.practicum.comment.CommentStatus;
+import ru.practicum.compilation.Compilation;
+import ru.practicum.compilation.CompilationRepository;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.Event;
+import ru.practicum.event.EventCursor;
+import ru.practicum.event.EventRepository;
+import ru.practicum.event.EventSpecifications;
+import ru.practicum.event.filter.EventFilterAdmin;
+import ru.practicum.event.filter.EventFilterPublic;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Списки, переведенные на Slice, выбирают страницу одним запросом с LIMIT size + 1 и не считают COUNT(*)
+ */
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class SliceQueriesStatementTest {
+
+    private static final long USER_ID = 7L;
+    private static final int ROWS = 5;
+    private static final PageRequest PAGE = PageRequest.of(0, 2);
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private CompilationRepository compilationRepository;
+
+    private Long eventId;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ROWS; i++) {
+            Event event = eventRepository.save(Event.builder()
+                    .annotation("Annotation " + i)
+                    .description("Description " + i)
+                    .title("Title " + i)
+                    .categoryId(1L)
+                    .initiatorId(USER_ID)
+                    .eventDate(LocalDateTime.now().plusDays(i + 1))
+                    .createdOn(LocalDateTime.now())
+                    .publishedOn(LocalDateTime.now())
+                    .state(EventState.PUBLISHED)
+                    .paid(false)
+                    .participantLimit(0)
+                    .requestModeration(false)
+                    .views((long) i)
+                    .build());
+            if (eventId == null) {
+                eventId = event.getId();
+            }
+            commentRepository.save(Comment.builder()
+                    .text("Comment " + i)
+                    .eventId(eventId)
+                    .authorId(USER_ID)
+                    .status(CommentStatus.PUBLISHED)
+                    .build());
+            compilationRepository.save(Compilation.builder()
+                    .title("Compilation " + i)
+                    .pinned(i % 2 == 0)
+                    .events(new HashSet<>())
+                    .build());
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void publicSearchSlice() {
+        EventFilterPublic filter = EventFilterPublic.builder().build();
+
+        assertSingleQuery(() -> eventRepository.findBy(EventSpecifications.forPublicFilter(filter)
+                        .and(EventSpecifications.orderBy(EventCursor.Order.VIEWS)),
+                query -> query.slice(PAGE)));
+    }
+
+    @Test
+    void adminSearchSlice() {
+        EventFilterAdmin filter = EventFilterAdmin.builder().build();
+
+        assertSingleQuery(() -> eventRepository.findBy(EventSpecifications.forAdminFilter(filter),
+                query -> query.slice(PAGE)));
+    }
+
+    @Test
+    void initiatorEventsSlice() {
+        assertSingleQuery(() -> eventRepository.findAllByInitiatorId(USER_ID, PAGE));
+    }
+
+    @Test
+    void eventCommentsSlice() {
+        assertSingleQuery(() -> commentRepository.findByEventIdAndStatus(eventId, CommentStatus.PUBLISHED,
+                PageRequest.of(0, 2, Sort.by("created").descending())));
+    }
+
+    @Test
+    void authorCommentsSlice() {
+        assertSingleQuery(() -> commentRepository.findByAuthorId(USER_ID, PAGE));
+    }
+
+    @Test
+    void compilationIdsSlice() {
+        PageRequest page = PageRequest.of(0, 2, Sort.by("id"));
+
+        assertSingleQuery(() -> compilationRepository.findIdsBy(page));
+        assertSingleQuery(() -> compilationRepository.findIdsByPinned(true, page));
+    }
+
+    private void assertSingleQuery(Supplier<Slice<?>> query) {
+        sqlStatementCounter.reset();
+
+        Slice<?> slice = query.get();
+
+        assertThat(slice.getContent()).hasSize(2);
+        assertThat(slice.hasNext()).isTrue();
+        assertThat(sqlStatementCounter.statements()).hasSize(1);
+        assertThat(sqlStatementCounter.countQueries()).isZero();
+    }
+}
@@ -0,0 +1,167 @@
+package ru.practicum.compilation;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.JpaTestConfiguration;
+import ru.practicum.SqlStatementCounter;
+import ru.practicum.compilation.dto.CompilationDto;
+import ru.practicum.compilation.dto.CompilationRequestParams;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.Event;
+import ru.practicum.event.EventMapper;
+import ru.practicum.event.RemoteCallExecutorConfig;
+import ru.practicum.feign.CategoryRepository;
+import ru.practicum.feign.UserRepository;
+import ru.practicum.location.Location;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Страница GET /compilations собирается не больше чем тремя запросами при любом числе подборок и событий:
+ * id подборок, подборки с событиями, локации событий. Повторный запрос той же страницы идет из кэша.
+ * findAll читает в собственной транзакции, поэтому данные теста фиксируются и удаляются после каждого теста
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@Import({CompilationServiceImpl.class, CompilationMapperImpl.class, EventMapper.class, CompilationPageCache.class,
+        RemoteCallExecutorConfig.class, CompilationPageStatementTest.MetricsConfig.class})
+class CompilationPageStatementTest {
+
+    private static final int COMPILATIONS = 6;
+    private static final int EVENTS_PER_COMPILATION = 4;
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    private CompilationService compilationService;
+    @Autowired
+    private CompilationPageCache compilationPageCache;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockitoBean
+    private CategoryRepository categoryRepository;
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate.executeWithoutResult(status -> persistCompilations());
+        sqlStatementCounter.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.createNativeQuery("DELETE FROM compilation_event").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM compilation").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM event").executeUpdate();
+            entityManager.createNativeQuery("DELETE FROM location").executeUpdate();
+        });
+        compilationPageCache.evictAllAfterCommit();
+    }
+
+    private void persistCompilations() {
+        for (int c = 0; c < COMPILATIONS; c++) {
+            Set<Event> events = new HashSet<>();
+            for (int e = 0; e < EVENTS_PER_COMPILATION; e++) {
+                Location location = Location.builder()
+                        .lat(BigDecimal.valueOf(55 + e))
+                        .lon(BigDecimal.valueOf(37 + c))
+                        .build();
+                entityManager.persist(location);
+                Event event = Event.builder()
+                        .title("Event %d-%d".formatted(c, e))
+                        .annotation("Annotation")
+                        .description("Description")
+                        .categoryId(1L)
+                        .initiatorId(1L)
+                        .locationId(location.getId())
+                        .eventDate(LocalDateTime.now().plusDays(1))
+                        .state(EventState.PUBLISHED)
+                        .build();
+                entityManager.persist(event);
+                events.add(event);
+            }
+            entityManager.persist(Compilation.builder()
+                    .title("Compilation " + c)
+                    .pinned(c % 2 == 0)
+                    .events(events)
+                    .build());
+        }
+    }
+
+    @Test
+    void pageTakesAtMostThreeStatements() {
+        Collection<CompilationDto> page = compilationService.findAll(params(null, 0, 4));
+
+        assertThat(page).hasSize(4);
+        assertThat(page).allSatisfy(compilation -> {
+            assertThat(compilation.getEvents()).hasSize(EVENTS_PER_COMPILATION);
+            assertThat(compilation.getEvents()).allSatisfy(event -> assertThat(event.getLocation()).isNotNull());
+        });
+        assertThat(sqlStatementCounter.statements()).hasSizeLessThanOrEqualTo(3);
+        assertThat(sqlStatementCounter.countQueries()).isZero();
+        verifyNoInteractions(categoryRepository, userRepository);
+    }
+
+    @Test
+    void pinnedPageTakesAtMostThreeStatements() {
+        Collection<CompilationDto> page = compilationService.findAll(params(true, 0, 10));
+
+        assertThat(page).hasSize(COMPILATIONS / 2);
+        assertThat(sqlStatementCounter.statements()).hasSizeLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void repeatedPageIsServedFromCache() {
+        List<CompilationDto> first = new ArrayList<>(compilationService.findAll(params(false, 0, 2)));
+        sqlStatementCounter.reset();
+
+        List<CompilationDto> second = new ArrayList<>(compilationService.findAll(params(false, 0, 2)));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(sqlStatementCounter.statements()).isEmpty();
+    }
+
+    private CompilationRequestParams params(Boolean pinned, int from, int size) {
+        return CompilationRequestParams.builder()
+                .pinned(pinned)
+                .from(from)
+                .size(size)
+                .build();
+    }
+
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
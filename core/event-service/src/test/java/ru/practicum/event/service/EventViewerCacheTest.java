@@ -0,0 +1,21 @@
+package ru.practicum.event.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventViewerCacheTest {
+
+    private final EventViewerCache cache = new EventViewerCache(new SimpleMeterRegistry(), 100, Duration.ofHours(1));
+
+    @Test
+    void onlyFirstViewFromIpIsCounted() {
+        assertThat(cache.isFirstView(1L, "10.0.0.1")).isTrue();
+        assertThat(cache.isFirstView(1L, "10.0.0.1")).isFalse();
+        assertThat(cache.isFirstView(1L, "10.0.0.2")).isTrue();
+        assertThat(cache.isFirstView(2L, "10.0.0.1")).isTrue();
+    }
+}
@@ -27,9 +27,15 @@ public class Event {
     @Column(name = "category_id")
     private Long categoryId;
 
-    // Счетчик не обновляется в бд, считается по запросам на участие
+    // Число подтвержденных заявок, присылает request-service; при сохранении сущности не перезаписывается
+    @Column(updatable = false)
     private Long confirmedRequests;
 
+    // Номер последнего примененного изменения счетчика заявок
+    @Column(name = "confirmed_seq", updatable = false)
+    @JsonIgnore
+    private Long confirmedSeq;
+
     @Column(name = "created_on")
     private LocalDateTime createdOn;
 
@@ -58,7 +64,8 @@ public class Event {
 
     private String title;
 
-    // Не хранится в бд, получается через клиента из сервера статистики
+    // Проекция просмотров из сервера статистики, периодически обновляется в event-service
+    @Column(updatable = false)
     private Long views;
 
     @ManyToMany(mappedBy = "events")
@@ -0,0 +1,22 @@
+package ru.practicum.event.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import ru.practicum.enums.EventState;
+
+// Поля события, по которым request-service проверяет заявки; без справочников category-service и user-service
+@Builder
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSnapshotDto {
+    private Long id;
+    private Long initiatorId;
+    private EventState state;
+    private Integer participantLimit;
+    private Boolean requestModeration;
+}
@@ -37,4 +37,10 @@ public class EventFilterBase {
     @Max(value = 1000)
     @Builder.Default
     private int size = 10;
+
+    /** public + admin
+     * курсор следующей страницы из заголовка X-Next-Cursor, пустое значение - первая страница.
+     * Если не задан, используются from и size
+     */
+    private String cursor;
 }
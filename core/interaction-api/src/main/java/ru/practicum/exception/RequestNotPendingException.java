@@ -0,0 +1,7 @@
+package ru.practicum.exception;
+
+public class RequestNotPendingException extends RuntimeException {
+    public RequestNotPendingException(String message) {
+        super(message);
+    }
+}
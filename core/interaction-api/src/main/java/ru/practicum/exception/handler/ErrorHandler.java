@@ -103,6 +103,7 @@ public class ErrorHandler {
             EventNotPublishedException.class,
             ParticipantLimitExceededException.class,
             RequestAlreadyExistsException.class,
+            RequestNotPendingException.class,
             FeignException.Conflict.class
     })
     @ResponseStatus(HttpStatus.CONFLICT)
@@ -4,8 +4,13 @@ import jakarta.validation.constraints.Positive;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import ru.practicum.category.Category;
 
+import java.util.Map;
+import java.util.Set;
+
 @FeignClient(
         name = "category-service",
         contextId = "categoryFeign",
@@ -15,4 +20,8 @@ public interface CategoryFeignClient {
 
     @GetMapping("/{categoryId}")
     Category findById(@PathVariable @Positive final Long categoryId);
+
+    // Категории по списку id одним запросом; отсутствующих id в ответе нет
+    @PostMapping("/batch")
+    Map<Long, Category> findAllByIds(@RequestBody final Set<Long> categoryIds);
 }
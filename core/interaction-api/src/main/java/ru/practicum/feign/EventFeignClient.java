@@ -9,7 +9,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.event.Event;
 import ru.practicum.event.dto.EventDtoFull;
+import ru.practicum.event.dto.EventSnapshotDto;
 import ru.practicum.exception.CategoryIsRelatedToEventException;
+import ru.practicum.request.dto.ConfirmedRequestsUpdateDto;
 
 import java.util.List;
 import java.util.Set;
@@ -20,6 +22,9 @@ public interface EventFeignClient {
     @GetMapping("/{eventId}")
     EventDtoFull findById(@PathVariable @NotNull final Long eventId);
 
+    @GetMapping("/{eventId}/snapshot")
+    EventSnapshotDto findSnapshotById(@PathVariable @NotNull final Long eventId);
+
     @GetMapping("/{eventId}/user/{userId}")
     Event findByIdAndInitiatorId(
             @PathVariable @NotNull final Long eventId,
@@ -41,4 +46,19 @@ public interface EventFeignClient {
     @DeleteMapping(path = "/{eventId}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     void deleteEvent(final @PathVariable @Positive Long eventId) throws CategoryIsRelatedToEventException;
+
+    @PutMapping("/{eventId}/confirmed")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    void updateConfirmedRequests(
+            @PathVariable @NotNull final Long eventId,
+            @RequestBody final ConfirmedRequestsUpdateDto update
+    );
+
+    @DeleteMapping(path = "/cache/category/{categoryId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    void evictCategory(final @PathVariable @Positive Long categoryId);
+
+    @DeleteMapping(path = "/cache/user/{userId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    void evictUser(final @PathVariable @Positive Long userId);
 }
@@ -4,11 +4,16 @@ import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import ru.practicum.request.dto.ConfirmedRequestsCount;
 import ru.practicum.request.dto.RequestDto;
 import ru.practicum.request.dto.RequestStatusUpdateDto;
@@ -24,9 +29,11 @@ import java.util.List;
 public interface RequestFeignClient {
 
     @GetMapping("/user/{userId}/event/{eventId}")
-    List<RequestDto> getRequestsByOwnerOfEvent(
+    ResponseEntity<List<RequestDto>> getRequestsByOwnerOfEvent(
             @PathVariable @Positive final Long userId,
-            @PathVariable @Positive final Long eventId
+            @PathVariable @Positive final Long eventId,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size") final int size
     );
 
     @PostMapping("/user/{userId}/event/{eventId}")
@@ -41,4 +48,8 @@ public interface RequestFeignClient {
 
     @PostMapping("/confirmed")
     Long countConfirmedRequests(final @NotNull @RequestBody Long eventId);
+
+    @DeleteMapping("/cache/event/{eventId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    void evictEvent(final @PathVariable @Positive Long eventId);
 }
@@ -4,11 +4,20 @@ import jakarta.validation.constraints.Positive;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import ru.practicum.user.User;
 
+import java.util.Map;
+import java.util.Set;
+
 @FeignClient(name = "user-service", path = "/internal/user")
 public interface UserFeignClient {
 
     @GetMapping("/{userId}")
     User findById(@PathVariable @Positive final Long userId);
+
+    // Пользователи по списку id одним запросом; отсутствующих id в ответе нет
+    @PostMapping("/batch")
+    Map<Long, User> findAllByIds(@RequestBody final Set<Long> userIds);
 }
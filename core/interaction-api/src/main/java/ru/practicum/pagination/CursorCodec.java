@@ -0,0 +1,37 @@
+package ru.practicum.pagination;
+
+import ru.practicum.exception.FilterValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.function.BiFunction;
+
+/**
+ * Кодирование курсоров keyset-пагинации: порядок выдачи, id и ключ сортировки последней строки страницы
+ * склеиваются в "order|id|key" и передаются клиенту непрозрачной строкой base64url.
+ */
+public final class CursorCodec {
+
+    private CursorCodec() {
+    }
+
+    public static String encode(Enum<?> order, Long id, String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("%s|%d|%s".formatted(order.name(), id, key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Курсор действителен только для того же порядка выдачи, в котором он получен;
+    // ошибки разбора ключа в factory тоже означают неверный курсор
+    public static <T> T decode(String cursor, Enum<?> order, BiFunction<Long, String, T> factory) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3 || !order.name().equals(parts[0])) {
+                throw new FilterValidationException("Cursor does not match order " + order);
+            }
+            return factory.apply(Long.valueOf(parts[1]), parts[2]);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new FilterValidationException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ru.practicum.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Страница keyset-пагинации. nextCursor - непрозрачный курсор следующей страницы,
+ * null - продолжения нет. Клиенту курсор отдается в заголовке X-Next-Cursor.
+ */
+@Getter
+@RequiredArgsConstructor
+public class CursorPage<T> {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public <R> CursorPage<R> map(Function<List<T>, List<R>> mapper) {
+        return new CursorPage<>(mapper.apply(items), nextCursor);
+    }
+
+    // Тело ответа остается списком, как и при пагинации from/size
+    public ResponseEntity<List<T>> toResponseEntity() {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor);
+        }
+        return response.body(items);
+    }
+}
@@ -0,0 +1,25 @@
+package ru.practicum.request.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// Текущее число подтвержденных заявок события и порядковый номер изменения в request-service
+@Builder
+@Getter
+@ToString
+@NoArgsConstructor
+@AllArgsConstructor
+public class ConfirmedRequestsUpdateDto {
+    @NotNull
+    @PositiveOrZero
+    private Long confirmed;
+
+    @NotNull
+    @PositiveOrZero
+    private Long seq;
+}
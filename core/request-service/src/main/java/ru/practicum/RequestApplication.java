@@ -5,12 +5,16 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import ru.practicum.exception.handler.ErrorHandlerConfig;
 
 @SpringBootApplication
 @EnableFeignClients(basePackages = "ru.practicum.feign")
 @EntityScan(basePackages = "ru.practicum")
 @Import({ErrorHandlerConfig.class})
+@EnableAsync
+@EnableScheduling
 public class RequestApplication {
     public static void main(String[] args) {
         SpringApplication.run(RequestApplication.class, args);
@@ -0,0 +1,42 @@
+package ru.practicum;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import ru.practicum.pagination.CursorCodec;
+import ru.practicum.request.Request;
+
+import java.time.LocalDateTime;
+
+/**
+ * Курсор keyset-пагинации заявок: порядок выдачи и ключ (created, id) последней заявки страницы.
+ * Заявки пользователя идут по created, заявки события - по id. Строка курсора собирается CursorCodec.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class RequestCursor {
+
+    public enum Order {
+        CREATED,
+        ID
+    }
+
+    private final Order order;
+    private final Long id;
+    private final LocalDateTime created;
+
+    public static RequestCursor after(Order order, Request request) {
+        return new RequestCursor(order, request.getId(), request.getCreated());
+    }
+
+    public String encode() {
+        return CursorCodec.encode(order, id, order == Order.CREATED ? created.toString() : "");
+    }
+
+    // Курсор действителен только для того же списка, в котором он получен
+    public static RequestCursor decode(String cursor, Order order) {
+        return CursorCodec.decode(cursor, order, (id, key) -> order == Order.CREATED
+                ? new RequestCursor(order, id, LocalDateTime.parse(key))
+                : new RequestCursor(order, id, null));
+    }
+}
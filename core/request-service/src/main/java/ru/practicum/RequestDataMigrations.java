@@ -0,0 +1,94 @@
+package ru.practicum;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Разовые миграции данных заявок, выполняются после schema.sql до приема запросов.
+ * Имя миграции записывается в request_data_migration в ее же транзакции: миграция выполняется один раз,
+ * а при одновременном старте нескольких экземпляров остальные ждут коммита первого и пропускают ее.
+ * Неудачная миграция откатывается вместе с отметкой и повторяется при следующем старте.
+ */
+@Component
+@DependsOnDatabaseInitialization
+@RequiredArgsConstructor
+@Slf4j
+public class RequestDataMigrations implements InitializingBean {
+
+    // Счетчики для событий, заявки которых появились раньше event_confirmed_counter: seq = 1 больше
+    // published_seq, поэтому ConfirmedRequestsPublisher отправит их в event-service
+    private static final String BACKFILL_COUNTERS_SQL =
+            "INSERT INTO event_confirmed_counter (event_id, confirmed, seq, published_seq) " +
+                    "SELECT r.event_id, SUM(CASE WHEN r.status = 'CONFIRMED' THEN 1 ELSE 0 END), 1, 0 " +
+                    "FROM request r " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM event_confirmed_counter c WHERE c.event_id = r.event_id) " +
+                    "GROUP BY r.event_id";
+
+    // Базы, созданные до уникального индекса, могут содержать повторные заявки, и CREATE UNIQUE INDEX на них падает.
+    // Из каждой группы (requester_id, event_id) остается одна заявка: подтвержденная, если есть, иначе самая ранняя.
+    // Удаляемые подтвержденные дубликаты сначала вычитаются из счетчика события (seq растет, значение уходит в event-service)
+    private static final String DEDUP_COUNTERS_SQL =
+            "UPDATE event_confirmed_counter c " +
+                    "SET confirmed = confirmed - (SELECT COUNT(*) FROM request r " +
+                    "WHERE r.event_id = c.event_id AND r.status = 'CONFIRMED' " +
+                    "AND EXISTS (SELECT 1 FROM request d WHERE d.requester_id = r.requester_id " +
+                    "AND d.event_id = r.event_id AND d.status = 'CONFIRMED' AND d.id < r.id)), " +
+                    "seq = seq + 1 " +
+                    "WHERE EXISTS (SELECT 1 FROM request r " +
+                    "JOIN request d ON d.requester_id = r.requester_id AND d.event_id = r.event_id " +
+                    "WHERE r.event_id = c.event_id AND r.status = 'CONFIRMED' AND d.status = 'CONFIRMED' AND d.id < r.id)";
+    private static final String DEDUP_REQUESTS_SQL =
+            "DELETE FROM request r " +
+                    "WHERE EXISTS (SELECT 1 FROM request d " +
+                    "WHERE d.requester_id = r.requester_id AND d.event_id = r.event_id " +
+                    "AND ((d.status = 'CONFIRMED' AND r.status <> 'CONFIRMED') " +
+                    "OR ((d.status = 'CONFIRMED') = (r.status = 'CONFIRMED') AND d.id < r.id)))";
+    // одна заявка пользователя на событие; дубликат при параллельной отправке отсекается индексом
+    private static final String REQUESTER_EVENT_INDEX_SQL =
+            "CREATE UNIQUE INDEX IF NOT EXISTS uq_request_requester_event ON request (requester_id, event_id)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public void afterPropertiesSet() {
+        apply("request-dedup-unique-index", DEDUP_COUNTERS_SQL, DEDUP_REQUESTS_SQL, REQUESTER_EVENT_INDEX_SQL);
+        apply("confirmed-counter-backfill", BACKFILL_COUNTERS_SQL);
+    }
+
+    private void apply(String name, String... statements) {
+        if (isApplied(name)) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.update("INSERT INTO request_data_migration (name, applied_at) VALUES (?, ?)",
+                        name, LocalDateTime.now());
+                int rows = 0;
+                for (String sql : statements) {
+                    rows += jdbcTemplate.update(sql);
+                }
+                log.info("Main-service. data migration {} applied: rows = {}", name, rows);
+            });
+        } catch (DuplicateKeyException e) {
+            if (!isApplied(name)) {
+                // Конфликт с параллельной записью приложения, а не с другим экземпляром
+                log.warn("Main-service. data migration {} failed, retry on next start: {}", name, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isApplied(String name) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM request_data_migration WHERE name = ?", Integer.class, name);
+        return count != null && count > 0;
+    }
+}
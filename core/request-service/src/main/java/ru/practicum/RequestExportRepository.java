@@ -0,0 +1,86 @@
+package ru.practicum;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import ru.practicum.request.RequestStatus;
+import ru.practicum.request.dto.RequestDto;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Выгрузка заявок keyset-страницами по request.export.page-size строк. Каждая страница читается отдельным
+ * коротким запросом вне транзакции и только потом передается получателю, поэтому соединение с БД
+ * не удерживается, пока ответ пишется медленному клиенту; в памяти одновременно не больше одной страницы.
+ */
+@Repository
+public class RequestExportRepository {
+
+    private static final String COLUMNS = "id, created, event_id, requester_id, status";
+
+    private static final String BY_REQUESTER_FIRST_SQL =
+            "SELECT " + COLUMNS + " FROM request WHERE requester_id = :requesterId " +
+                    "ORDER BY created, id LIMIT :limit";
+
+    // created >= :created задает границу диапазона индекса (requester_id, created)
+    private static final String BY_REQUESTER_NEXT_SQL =
+            "SELECT " + COLUMNS + " FROM request WHERE requester_id = :requesterId " +
+                    "AND created >= :created AND (created > :created OR id > :id) " +
+                    "ORDER BY created, id LIMIT :limit";
+
+    private static final String BY_EVENT_SQL =
+            "SELECT " + COLUMNS + " FROM request WHERE event_id = :eventId AND id > :id " +
+                    "ORDER BY id LIMIT :limit";
+
+    private static final RowMapper<RequestDto> REQUEST_ROW_MAPPER = (rs, rowNum) -> RequestDto.builder()
+            .id(rs.getLong("id"))
+            .created(rs.getObject("created", LocalDateTime.class))
+            .event(rs.getLong("event_id"))
+            .requester(rs.getLong("requester_id"))
+            .status(RequestStatus.valueOf(rs.getString("status")))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final int pageSize;
+
+    public RequestExportRepository(DataSource dataSource,
+                                   @Value("${request.export.page-size:500}") int pageSize) {
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        this.pageSize = pageSize;
+    }
+
+    public long streamByRequesterId(Long requesterId, Consumer<RequestDto> consumer) {
+        return stream(after -> after == null
+                ? findPage(BY_REQUESTER_FIRST_SQL, new MapSqlParameterSource("requesterId", requesterId))
+                : findPage(BY_REQUESTER_NEXT_SQL, new MapSqlParameterSource("requesterId", requesterId)
+                .addValue("created", after.getCreated())
+                .addValue("id", after.getId())), consumer);
+    }
+
+    public long streamByEventId(Long eventId, Consumer<RequestDto> consumer) {
+        return stream(after -> findPage(BY_EVENT_SQL, new MapSqlParameterSource("eventId", eventId)
+                .addValue("id", after == null ? 0L : after.getId())), consumer);
+    }
+
+    // Неполная страница - последняя, лишний запрос за пустой страницей не выполняется
+    private long stream(Function<RequestDto, List<RequestDto>> nextPage, Consumer<RequestDto> consumer) {
+        long count = 0;
+        List<RequestDto> page = nextPage.apply(null);
+        while (!page.isEmpty()) {
+            page.forEach(consumer);
+            count += page.size();
+            page = page.size() < pageSize ? List.of() : nextPage.apply(page.getLast());
+        }
+        return count;
+    }
+
+    private List<RequestDto> findPage(String sql, MapSqlParameterSource params) {
+        return jdbcTemplate.query(sql, params.addValue("limit", pageSize), REQUEST_ROW_MAPPER);
+    }
+}
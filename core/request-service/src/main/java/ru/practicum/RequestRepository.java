@@ -1,15 +1,15 @@
 package ru.practicum;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.request.Request;
 import ru.practicum.request.RequestStatus;
 import ru.practicum.request.dto.ConfirmedRequestsCount;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,11 +24,25 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     List<Request> findByEventId(@Param("eventId") Long eventId);
 
+    // getRequestsByOwnerOfEvent с курсором, индекс (event_id, id)
+    List<Request> findByEventIdAndIdGreaterThanOrderByIdAsc(Long eventId, Long id, Limit limit);
+
     // createRequest
     Boolean existsByRequesterIdAndEventId(Long requesterId, Long eventId);
 
-    //  getCurrentUserRequests
-    List<Request> findByRequesterId(Long requesterId);
+    //  getCurrentUserRequests, индекс (requester_id, created)
+    List<Request> findByRequesterIdOrderByCreatedAsc(Long requesterId);
+
+    // getCurrentUserRequests с курсором: created >= :created задает границу диапазона индекса
+    List<Request> findByRequesterIdOrderByCreatedAscIdAsc(Long requesterId, Limit limit);
+
+    @Query("SELECT r FROM Request r WHERE r.requesterId = :requesterId " +
+            "AND r.created >= :created AND (r.created > :created OR r.id > :id) " +
+            "ORDER BY r.created, r.id")
+    List<Request> findByRequesterIdAfter(@Param("requesterId") Long requesterId,
+                                         @Param("created") LocalDateTime created,
+                                         @Param("id") Long id,
+                                         Limit limit);
 
     // cancelRequests
     Optional<Request> findByIdAndRequesterId(Long id, Long requesterId);
@@ -42,19 +56,6 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     @Query("SELECT COUNT(r) FROM Request r WHERE r.eventId = :eventId AND r.status = 'CONFIRMED'")
     Long countConfirmedRequests(@Param("eventId") Long eventId);
 
-    @Modifying
-    @Transactional
-    @Query("UPDATE Request r SET r.status = :status " +
-            "WHERE r.id IN :requestIds AND r.eventId = :eventId")
-    int updateRequestsStatus(@Param("requestIds") List<Long> requestIds,
-                             @Param("eventId") Long eventId,
-                             @Param("status") RequestStatus status);
-
-    @Query("SELECT r FROM Request r WHERE r.id IN :requestIds AND r.eventId = :eventId AND r.status = :status")
-    List<Request> findRequestsByStatus(@Param("requestIds") List<Long> requestIds,
-                                       @Param("eventId") Long eventId,
-                                       @Param("status") RequestStatus status);
-
     @Query("SELECT r.eventId as eventId, COUNT(r) as count " +
             "FROM Request r " +
             "WHERE r.eventId IN :eventIds " +
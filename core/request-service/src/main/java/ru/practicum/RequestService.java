@@ -5,18 +5,24 @@ import ru.practicum.request.dto.RequestDto;
 import ru.practicum.request.dto.RequestStatusUpdateDto;
 import ru.practicum.request.dto.RequestStatusUpdateResultDto;
 import ru.practicum.exception.*;
+import ru.practicum.pagination.CursorPage;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
 public interface RequestService {
 
-    List<RequestDto> getRequestsByOwnerOfEvent(Long userId, Long eventId) throws EventNotFoundException;
+    CursorPage<RequestDto> getRequestsByOwnerOfEvent(Long userId, Long eventId, String cursor, int size) throws EventNotFoundException;
+
+    StreamingResponseBody exportRequestsByOwnerOfEvent(Long userId, Long eventId) throws EventNotFoundException;
 
     RequestStatusUpdateResultDto updateRequests(Long userId, Long eventId, RequestStatusUpdateDto requestStatusUpdateDto) throws EventNotFoundException, EventNotPublishedException, ParticipantLimitExceededException;
 
     RequestDto createRequest(Long userId, Long eventId) throws UserNotFoundException, EventNotFoundException, RequestAlreadyExistsException, ParticipantLimitExceededException, RequestSelfAttendException, EventNotPublishedException;
 
-    List<RequestDto> getCurrentUserRequests(Long userId) throws UserNotFoundException;
+    CursorPage<RequestDto> getCurrentUserRequests(Long userId, String cursor, int size) throws UserNotFoundException;
+
+    StreamingResponseBody exportCurrentUserRequests(Long userId) throws UserNotFoundException;
 
     RequestDto cancelRequests(Long userId, Long requestId) throws RequestNotFoundException;
 
@@ -1,22 +1,37 @@
 package ru.practicum;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.counter.ConfirmedCounterService;
+import ru.practicum.counter.EventConfirmedCounter;
 import ru.practicum.enums.EventState;
-import ru.practicum.event.Event;
-import ru.practicum.event.dto.EventDtoFull;
+import ru.practicum.event.dto.EventSnapshotDto;
 import ru.practicum.exception.*;
 import ru.practicum.feign.EventRepository;
 import ru.practicum.feign.UserRepository;
+import ru.practicum.pagination.CursorPage;
 import ru.practicum.request.Request;
 import ru.practicum.request.RequestStatus;
 import ru.practicum.request.dto.*;
 import ru.practicum.user.User;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
@@ -24,41 +39,84 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class RequestServiceImpl implements RequestService {
 
+    private static final String REQUESTER_EVENT_INDEX = "uq_request_requester_event";
+
     private final RequestRepository requestRepository;
+    private final RequestStatusRepository requestStatusRepository;
+    private final RequestExportRepository requestExportRepository;
     private final EventRepository eventRepository;
     private final RequestMapper requestMapper;
     private final UserRepository userRepository;
+    private final ConfirmedCounterService confirmedCounterService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
 
+    // Удаленные запросы выполняются до начала транзакции, чтобы не держать соединение с БД во время вызовов Feign
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RequestDto createRequest(Long userId, Long eventId) throws UserNotFoundException, EventNotFoundException, RequestAlreadyExistsException, ParticipantLimitExceededException, RequestSelfAttendException, EventNotPublishedException {
         log.info("Main-service. createRequest input: userId = {}, eventId = {}", userId, eventId);
 
         User user = userRepository.findById(userId);
 
-        Event event = toEventFromFullDto(eventRepository.findById(eventId));
-
-        if (requestRepository.existsByRequesterIdAndEventId(userId, eventId)) {
-            throw new RequestAlreadyExistsException("Request for eventId = %d by userId = %d already exists".formatted(eventId, userId));
-        }
+        EventSnapshotDto event = eventRepository.findSnapshotById(eventId);
 
         if (event.getInitiatorId().equals(userId)) {
             throw new RequestSelfAttendException("Cannot request to your own event");
         }
 
+        Request savedRequest;
+        try {
+            savedRequest = reserveAndSave(user, event);
+        } catch (ParticipantLimitExceededException e) {
+            // Перед отказом лимит сверяется со снимком в обход кэша: если снимок устарел, заявка проверяется заново
+            EventSnapshotDto freshEvent = eventRepository.findFreshSnapshotById(eventId);
+            if (sameCapacity(event, freshEvent)) {
+                throw e;
+            }
+            savedRequest = reserveAndSave(user, freshEvent);
+        }
+
+        log.info("Main-service. createRequest success {}", savedRequest.getId());
+
+        return requestMapper.toDto(savedRequest);
+    }
+
+    private Request reserveAndSave(User user, EventSnapshotDto event) {
         if (event.getState() != EventState.PUBLISHED) {
             throw new EventNotPublishedException("event is not published yet");
         }
 
-        if (event.getParticipantLimit() != 0) {
-            Long confirmedCount = requestRepository.countByEventIdAndStatus(eventId, RequestStatus.CONFIRMED);
-            if (event.getParticipantLimit() > 0 && confirmedCount >= event.getParticipantLimit()) {
-                throw new ParticipantLimitExceededException("Participant limit " + event.getParticipantLimit() + " exceeded for event " + eventId);
-            }
-            event.setConfirmedRequests(confirmedCount);
+        RequestStatus status = determineRequestStatus(event);
+        if (status == RequestStatus.CONFIRMED) {
+            confirmedCounterService.ensureCounter(event.getId());
         }
 
-        RequestStatus status = determineRequestStatus(event);
+        return transactionTemplate.execute(tx -> saveRequest(user, event, status));
+    }
+
+    private boolean sameCapacity(EventSnapshotDto event, EventSnapshotDto freshEvent) {
+        return freshEvent.getState() == event.getState()
+                && freshEvent.getParticipantLimit().equals(event.getParticipantLimit())
+                && freshEvent.getRequestModeration().equals(event.getRequestModeration());
+    }
+
+    private Request saveRequest(User user, EventSnapshotDto event, RequestStatus status) {
+        if (requestRepository.existsByRequesterIdAndEventId(user.getId(), event.getId())) {
+            throw new RequestAlreadyExistsException("Request for eventId = %d by userId = %d already exists".formatted(event.getId(), user.getId()));
+        }
+
+        if (status == RequestStatus.CONFIRMED) {
+            // Место занимается условным обновлением счетчика, без отдельной проверки числа заявок
+            if (!confirmedCounterService.tryReserve(event.getId(), event.getParticipantLimit())) {
+                throw new ParticipantLimitExceededException("Participant limit " + event.getParticipantLimit() + " exceeded for event " + event.getId());
+            }
+        } else if (event.getParticipantLimit() > 0) {
+            Long confirmedCount = requestRepository.countByEventIdAndStatus(event.getId(), RequestStatus.CONFIRMED);
+            if (confirmedCount >= event.getParticipantLimit()) {
+                throw new ParticipantLimitExceededException("Participant limit " + event.getParticipantLimit() + " exceeded for event " + event.getId());
+            }
+        }
 
         Request request = Request.builder()
                 .created(LocalDateTime.now())
@@ -67,14 +125,29 @@ public class RequestServiceImpl implements RequestService {
                 .status(status)
                 .build();
 
-        Request savedRequest = requestRepository.save(request);
-
-        log.info("Main-service. createRequest success {}", request.getId());
+        try {
+            return requestRepository.saveAndFlush(request);
+        } catch (DataIntegrityViolationException e) {
+            // Параллельную повторную заявку отсекает уникальный индекс (requester_id, event_id),
+            // остальные нарушения целостности не относятся к повторной заявке
+            if (!violates(e, REQUESTER_EVENT_INDEX)) {
+                throw e;
+            }
+            throw new RequestAlreadyExistsException("Request for eventId = %d by userId = %d already exists".formatted(event.getId(), user.getId()));
+        }
+    }
 
-        return requestMapper.toDto(savedRequest);
+    // Имя ограничения есть в сообщении драйвера: PostgreSQL пишет его как есть, H2 - в верхнем регистре
+    private boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase().contains(constraint)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private RequestStatus determineRequestStatus(Event event) {
+    private RequestStatus determineRequestStatus(EventSnapshotDto event) {
         // Если модерация отключена или лимит не установлен, то автоматическое подтверждение
         if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
             return RequestStatus.CONFIRMED;
@@ -82,8 +155,9 @@ public class RequestServiceImpl implements RequestService {
         return RequestStatus.PENDING;
     }
 
+    // Вызов event-service выполняется до начала транзакции, статусы меняются массовыми UPDATE под блокировкой счетчика
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public RequestStatusUpdateResultDto updateRequests(Long userId, Long eventId, RequestStatusUpdateDto requestStatusUpdateDto) throws EventNotFoundException, EventNotPublishedException, ParticipantLimitExceededException {
         //        если для события лимит заявок равен 0 или отключена пре-модерация заявок, то подтверждение заявок не требуется
         //        нельзя подтвердить заявку, если уже достигнут лимит по заявкам на данное событие (Ожидается код ошибки 409)
@@ -91,7 +165,7 @@ public class RequestServiceImpl implements RequestService {
         //        если при подтверждении данной заявки, лимит заявок для события исчерпан, то все неподтверждённые заявки необходимо отклонить
         log.info("Main-service. updateRequests input: userId = {}, eventId = {}, RequestStatusUpdateDto = {}", userId, eventId, requestStatusUpdateDto);
 
-        Event event = eventRepository.findByIdAndInitiatorId(eventId, userId);
+        EventSnapshotDto event = findOwnEvent(eventId, userId);
 
         if (!event.getRequestModeration() && requestStatusUpdateDto == null) {
             return new RequestStatusUpdateResultDto();
@@ -101,36 +175,77 @@ public class RequestServiceImpl implements RequestService {
             throw new EventNotPublishedException("event is not published");
         }
 
-        Long confirmedCount = requestRepository.countConfirmedRequests(eventId);
-        if (event.getParticipantLimit() > 0 && confirmedCount >= event.getParticipantLimit()) {
+        RequestStatus status = requestStatusUpdateDto.getStatus();
+        if (status != RequestStatus.CONFIRMED && status != RequestStatus.REJECTED) {
+            throw new FilterValidationException("status must be CONFIRMED or REJECTED");
+        }
+
+        List<Long> requestIds = requestStatusUpdateDto.getRequestIds() == null
+                ? List.of() : requestStatusUpdateDto.getRequestIds();
+        // Места занимаются по лимиту, прочитанному в обход кэша
+        int participantLimit = status == RequestStatus.CONFIRMED
+                ? eventRepository.findFreshSnapshotById(eventId).getParticipantLimit() : event.getParticipantLimit();
+        if (status == RequestStatus.CONFIRMED) {
+            confirmedCounterService.ensureCounter(eventId);
+        }
+
+        RequestStatusUpdateResultDto result = transactionTemplate.execute(tx -> status == RequestStatus.CONFIRMED
+                ? confirmRequests(eventId, participantLimit, requestIds)
+                : rejectRequests(eventId, requestIds));
+
+        log.info("Main-service. updateRequests success: confirmedRequests = {}, rejectedRequests = {}",
+                result.getConfirmedRequests().size(), result.getRejectedRequests().size());
+        return result;
+    }
+
+    // Подтверждается не больше свободных мест; если лимит исчерпан, отклоняются все оставшиеся ожидающие заявки события
+    private RequestStatusUpdateResultDto confirmRequests(Long eventId, int participantLimit, List<Long> requestIds) {
+        EventConfirmedCounter counter = confirmedCounterService.lock(eventId);
+        long capacity = participantLimit == 0 ? Long.MAX_VALUE : participantLimit - counter.getConfirmed();
+        if (capacity <= 0) {
             throw new ParticipantLimitExceededException("Participant limit exceeded");
         }
 
-        requestRepository.updateRequestsStatus(
-                requestStatusUpdateDto.getRequestIds(),
-                eventId,
-                requestStatusUpdateDto.getStatus()
-        );
+        List<Request> confirmed = requestIds.isEmpty()
+                ? List.of() : requestStatusRepository.confirmPending(eventId, requestIds, capacity);
+        if (!confirmed.isEmpty()) {
+            confirmedCounterService.addConfirmed(counter, confirmed.size());
+        }
 
-        List<Request> confirmedRequests = requestRepository.findRequestsByStatus(
-                requestStatusUpdateDto.getRequestIds(),
-                eventId,
-                RequestStatus.CONFIRMED
-        );
+        List<Request> rejected = List.of();
+        if (confirmed.size() == capacity) {
+            // В ответе только отклоненные заявки из запроса, остальные отклоняются тем же оператором
+            Set<Long> requested = new HashSet<>(requestIds);
+            rejected = requestStatusRepository.rejectAllPending(eventId).stream()
+                    .filter(request -> requested.contains(request.getId()))
+                    .toList();
+        }
+        requireAllPending(eventId, requestIds, confirmed, rejected);
+        return toResult(confirmed, rejected);
+    }
 
-        List<Request> rejectedRequests = requestRepository.findRequestsByStatus(
-                requestStatusUpdateDto.getRequestIds(),
-                eventId,
-                RequestStatus.REJECTED
-        );
+    private RequestStatusUpdateResultDto rejectRequests(Long eventId, List<Long> requestIds) {
+        List<Request> rejected = requestIds.isEmpty()
+                ? List.of() : requestStatusRepository.rejectPending(eventId, requestIds);
+        requireAllPending(eventId, requestIds, List.of(), rejected);
+        return toResult(List.of(), rejected);
+    }
 
-        List<ParticipationRequestDto> confirmedRequestsList = requestMapper.toParticipationDtoList(confirmedRequests);
-        List<ParticipationRequestDto> rejectedRequestsList = requestMapper.toParticipationDtoList(rejectedRequests);
-        log.info("Main-service. updateRequests success: confirmedRequests = {}, rejectedRequests = {}", confirmedRequestsList.size(), rejectedRequestsList.size());
+    // UPDATE меняет только ожидающие заявки события; если какая-то из запрошенных не изменилась,
+    // исключение откатывает всю транзакцию вместе со счетчиком
+    private void requireAllPending(Long eventId, List<Long> requestIds, List<Request> confirmed, List<Request> rejected) {
+        Set<Long> notPending = new HashSet<>(requestIds);
+        confirmed.forEach(request -> notPending.remove(request.getId()));
+        rejected.forEach(request -> notPending.remove(request.getId()));
+        if (!notPending.isEmpty()) {
+            throw new RequestNotPendingException("Requests %s of eventId = %d are not pending".formatted(notPending, eventId));
+        }
+    }
 
+    private RequestStatusUpdateResultDto toResult(List<Request> confirmed, List<Request> rejected) {
         return RequestStatusUpdateResultDto.builder()
-                .confirmedRequests(confirmedRequestsList)
-                .rejectedRequests(rejectedRequestsList)
+                .confirmedRequests(requestMapper.toParticipationDtoList(confirmed))
+                .rejectedRequests(requestMapper.toParticipationDtoList(rejected))
                 .build();
     }
 
@@ -141,8 +256,12 @@ public class RequestServiceImpl implements RequestService {
         Request request = requestRepository.findByIdAndRequesterId(requestId, userId)
                 .orElseThrow(() -> new RequestNotFoundException("Request not found"));
 
+        RequestStatus previousStatus = request.getStatus();
         request.setStatus(RequestStatus.CANCELED);
         Request updatedRequest = requestRepository.save(request);
+        if (previousStatus == RequestStatus.CONFIRMED) {
+            confirmedCounterService.recount(updatedRequest.getEventId());
+        }
 
         log.info("Main-service. cancelRequests success: id = {}", updatedRequest.getId());
 
@@ -150,76 +269,119 @@ public class RequestServiceImpl implements RequestService {
     }
 
     @Override
-    public List<RequestDto> getCurrentUserRequests(Long userId) throws UserNotFoundException {
-        log.info("Main-service. getCurrentUserRequests input: userId = {}", userId);
+    public CursorPage<RequestDto> getCurrentUserRequests(Long userId, String cursor, int size) throws UserNotFoundException {
+        log.info("Main-service. getCurrentUserRequests input: userId = {}, cursor = {}, size = {}", userId, cursor, size);
 
         userRepository.findById(userId);
 
-        List<Request> requests = requestRepository.findByRequesterId(userId);
+        CursorPage<Request> requests = cursor == null
+                ? new CursorPage<>(requestRepository.findByRequesterIdOrderByCreatedAsc(userId), null)
+                : findRequesterPage(userId, cursor, size);
 
-        log.info("Main-service. getCurrentUserRequests success: size = {}", requests.size());
+        log.info("Main-service. getCurrentUserRequests success: size = {}", requests.getItems().size());
 
-        return requestMapper.toDtoList(requests);
+        return requests.map(requestMapper::toDtoList);
     }
 
     @Override
-    public List<RequestDto> getRequestsByOwnerOfEvent(Long userId, Long eventId) throws EventNotFoundException {
-        log.info("Main-service. getRequestsByOwnerOfEvent input: userId = {}, eventId = {}", userId, eventId);
+    public CursorPage<RequestDto> getRequestsByOwnerOfEvent(Long userId, Long eventId, String cursor, int size) throws EventNotFoundException {
+        log.info("Main-service. getRequestsByOwnerOfEvent input: userId = {}, eventId = {}, cursor = {}, size = {}",
+                userId, eventId, cursor, size);
 
-        Event event = eventRepository.findByIdAndInitiatorId(eventId, userId);
+        findOwnEvent(eventId, userId);
 
-        log.debug("Отправка запроса findByEventIdAndEventInitiatorId в БД с eventId = {} и userId = {}", eventId, userId);
-        List<Request> requests = requestRepository.findByEventId(eventId);
-        log.debug("Получен ответ из репозитория от метода findByEventIdAndEventInitiatorId");
+        CursorPage<Request> requests = cursor == null
+                ? new CursorPage<>(requestRepository.findByEventId(eventId), null)
+                : findEventPage(eventId, cursor, size);
 
-        log.info("Main-service. getRequestsByOwnerOfEvent success: size = {}", requests.size());
+        log.info("Main-service. getRequestsByOwnerOfEvent success: size = {}", requests.getItems().size());
 
-        return requestMapper.toDtoList(requests);
+        return requests.map(requestMapper::toDtoList);
     }
 
-    @Override
-    public List<ConfirmedRequestsCount> findConfirmedRequestsCountByEventIds(final List<Long> eventIds) {
-        return requestRepository.findConfirmedRequestsCountByEventIds(eventIds);
+    // Keyset-страница: size + 1 строк без OFFSET, лишняя строка означает, что есть продолжение
+    private CursorPage<Request> findRequesterPage(Long userId, String cursor, int size) {
+        if (cursor.isEmpty()) {
+            return toCursorPage(requestRepository.findByRequesterIdOrderByCreatedAscIdAsc(userId, Limit.of(size + 1)),
+                    RequestCursor.Order.CREATED, size);
+        }
+        RequestCursor after = RequestCursor.decode(cursor, RequestCursor.Order.CREATED);
+        return toCursorPage(requestRepository.findByRequesterIdAfter(userId, after.getCreated(), after.getId(),
+                Limit.of(size + 1)), RequestCursor.Order.CREATED, size);
+    }
+
+    private CursorPage<Request> findEventPage(Long eventId, String cursor, int size) {
+        Long afterId = cursor.isEmpty() ? 0L : RequestCursor.decode(cursor, RequestCursor.Order.ID).getId();
+        return toCursorPage(requestRepository.findByEventIdAndIdGreaterThanOrderByIdAsc(eventId, afterId,
+                Limit.of(size + 1)), RequestCursor.Order.ID, size);
     }
 
+    private CursorPage<Request> toCursorPage(List<Request> requests, RequestCursor.Order order, int size) {
+        if (requests.size() <= size) {
+            return new CursorPage<>(requests, null);
+        }
+        List<Request> page = requests.subList(0, size);
+        return new CursorPage<>(page, RequestCursor.after(order, page.getLast()).encode());
+    }
+
+    // Проверки выполняются сразу, строки читаются уже при записи ответа
     @Override
-    public Long countConfirmedRequests(final Long eventId) {
-        return requestRepository.countConfirmedRequests(eventId);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StreamingResponseBody exportCurrentUserRequests(Long userId) throws UserNotFoundException {
+        log.info("Main-service. exportCurrentUserRequests input: userId = {}", userId);
+
+        userRepository.findById(userId);
+
+        return streamJson(consumer -> requestExportRepository.streamByRequesterId(userId, consumer));
     }
 
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public StreamingResponseBody exportRequestsByOwnerOfEvent(Long userId, Long eventId) throws EventNotFoundException {
+        log.info("Main-service. exportRequestsByOwnerOfEvent input: userId = {}, eventId = {}", userId, eventId);
 
-    // Event из EventDtoFull (полное преобразование)
-    private Event toEventFromFullDto(EventDtoFull eventDtoFull) {
-        Event event = new Event();
+        findOwnEvent(eventId, userId);
 
-        // Базовые поля
-        event.setId(eventDtoFull.getId());
-        event.setAnnotation(eventDtoFull.getAnnotation());
-        event.setDescription(eventDtoFull.getDescription());
-        event.setEventDate(eventDtoFull.getEventDate());
-        event.setPaid(eventDtoFull.getPaid());
-        event.setParticipantLimit(eventDtoFull.getParticipantLimit());
-        event.setRequestModeration(eventDtoFull.getRequestModeration());
-        event.setTitle(eventDtoFull.getTitle());
-        event.setState(eventDtoFull.getState());
-        event.setViews(eventDtoFull.getViews());
-        event.setConfirmedRequests(eventDtoFull.getConfirmedRequests());
-        event.setCreatedOn(eventDtoFull.getCreatedOn());
-        event.setPublishedOn(eventDtoFull.getPublishedOn());
+        return streamJson(consumer -> requestExportRepository.streamByEventId(eventId, consumer));
+    }
 
-        // Преобразование вложенных объектов в ID
-        if (eventDtoFull.getCategory() != null) {
-            event.setCategoryId(eventDtoFull.getCategory().getId());
-        }
+    // JSON-массив пишется постранично; между страницами соединение с БД возвращается в пул
+    private StreamingResponseBody streamJson(Function<Consumer<RequestDto>, Long> source) {
+        return out -> {
+            try (JsonGenerator generator = objectMapper.createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+                generator.writeStartArray();
+                Long count = source.apply(request -> writeRequest(generator, request));
+                generator.writeEndArray();
+                log.info("Main-service. export success: size = {}", count);
+            }
+        };
+    }
 
-        if (eventDtoFull.getInitiator() != null) {
-            event.setInitiatorId(eventDtoFull.getInitiator().getId());
+    private void writeRequest(JsonGenerator generator, RequestDto request) {
+        try {
+            generator.writeObject(request);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
+    }
 
-        if (eventDtoFull.getLocation() != null) {
-            event.setLocationId(eventDtoFull.getLocation().getId());
-        }
+    @Override
+    public List<ConfirmedRequestsCount> findConfirmedRequestsCountByEventIds(final List<Long> eventIds) {
+        return requestRepository.findConfirmedRequestsCountByEventIds(eventIds);
+    }
 
+    @Override
+    public Long countConfirmedRequests(final Long eventId) {
+        return requestRepository.countConfirmedRequests(eventId);
+    }
+
+    // Снимок события из локального кэша; чужое событие не раскрывается, как и в event-service
+    private EventSnapshotDto findOwnEvent(Long eventId, Long userId) {
+        EventSnapshotDto event = eventRepository.findSnapshotById(eventId);
+        if (!event.getInitiatorId().equals(userId)) {
+            throw new EventNotFoundException("EventId = %d by userId = %d".formatted(eventId, userId));
+        }
         return event;
     }
 }
@@ -0,0 +1,85 @@
+package ru.practicum;
+
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Repository;
+import ru.practicum.request.Request;
+import ru.practicum.request.RequestStatus;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Массовая смена статусов заявок события одним оператором на каждый шаг.
+ * Измененные строки возвращаются тем же оператором: в PostgreSQL через UPDATE ... RETURNING,
+ * в H2 через SELECT ... FROM FINAL TABLE (UPDATE ...). Меняются только заявки в статусе PENDING.
+ */
+@Repository
+public class RequestStatusRepository {
+
+    private static final String COLUMNS = "id, created, event_id, requester_id, status";
+
+    // Подтверждает не больше :limit ожидающих заявок из списка, в порядке id
+    private static final String CONFIRM_SQL =
+            "UPDATE request SET status = 'CONFIRMED' " +
+                    "WHERE event_id = :eventId AND status = 'PENDING' AND id IN (" +
+                    "SELECT id FROM request WHERE event_id = :eventId AND status = 'PENDING' AND id IN (:ids) " +
+                    "ORDER BY id LIMIT :limit)";
+
+    private static final String REJECT_SQL =
+            "UPDATE request SET status = 'REJECTED' " +
+                    "WHERE event_id = :eventId AND status = 'PENDING' AND id IN (:ids)";
+
+    private static final String REJECT_ALL_PENDING_SQL =
+            "UPDATE request SET status = 'REJECTED' WHERE event_id = :eventId AND status = 'PENDING'";
+
+    private static final RowMapper<Request> REQUEST_ROW_MAPPER = (rs, rowNum) -> Request.builder()
+            .id(rs.getLong("id"))
+            .created(rs.getObject("created", LocalDateTime.class))
+            .eventId(rs.getLong("event_id"))
+            .requesterId(rs.getLong("requester_id"))
+            .status(RequestStatus.valueOf(rs.getString("status")))
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final boolean returningSupported;
+
+    public RequestStatusRepository(NamedParameterJdbcTemplate jdbcTemplate, DataSource dataSource)
+            throws MetaDataAccessException {
+        this.jdbcTemplate = jdbcTemplate;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.returningSupported = "PostgreSQL".equals(product);
+    }
+
+    public List<Request> confirmPending(Long eventId, List<Long> requestIds, long limit) {
+        return updateReturning(CONFIRM_SQL, new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("ids", requestIds)
+                .addValue("limit", limit));
+    }
+
+    public List<Request> rejectPending(Long eventId, List<Long> requestIds) {
+        return updateReturning(REJECT_SQL, new MapSqlParameterSource()
+                .addValue("eventId", eventId)
+                .addValue("ids", requestIds));
+    }
+
+    public List<Request> rejectAllPending(Long eventId) {
+        return updateReturning(REJECT_ALL_PENDING_SQL, new MapSqlParameterSource("eventId", eventId));
+    }
+
+    private List<Request> updateReturning(String updateSql, MapSqlParameterSource params) {
+        String sql = returningSupported
+                ? updateSql + " RETURNING " + COLUMNS
+                : "SELECT " + COLUMNS + " FROM FINAL TABLE (" + updateSql + ")";
+        return jdbcTemplate.query(sql, params, REQUEST_ROW_MAPPER).stream()
+                .sorted(Comparator.comparing(Request::getId))
+                .toList();
+    }
+}
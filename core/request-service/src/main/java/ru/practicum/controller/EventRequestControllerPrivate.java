@@ -0,0 +1,32 @@
+package ru.practicum.controller;
+
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.RequestService;
+import ru.practicum.exception.EventNotFoundException;
+
+/**
+ * Выгрузка заявок события организатором. Маршрутизируется gateway напрямую в request-service,
+ * чтобы поток не собирался в память при проксировании через event-service.
+ */
+@RestController
+@RequestMapping("/users/{userId}/events/{eventId}/requests")
+@RequiredArgsConstructor
+@Validated
+public class EventRequestControllerPrivate {
+
+    private final RequestService requestService;
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRequestsByOwnerOfEvent(@PathVariable @Positive Long userId,
+                                                                              @PathVariable @Positive Long eventId) throws EventNotFoundException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(requestService.exportRequestsByOwnerOfEvent(userId, eventId));
+    }
+}
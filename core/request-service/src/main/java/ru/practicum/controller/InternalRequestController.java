@@ -1,12 +1,16 @@
 package ru.practicum.controller;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.RequestService;
+import ru.practicum.feign.EventRepository;
 import ru.practicum.request.dto.ConfirmedRequestsCount;
 import ru.practicum.request.dto.RequestDto;
 import ru.practicum.request.dto.RequestStatusUpdateDto;
@@ -21,13 +25,16 @@ import java.util.List;
 public class InternalRequestController {
 
     private final RequestService requestService;
+    private final EventRepository eventRepository;
 
     @GetMapping("/user/{userId}/event/{eventId}")
-    public List<RequestDto> getRequestsByOwnerOfEvent(
+    public ResponseEntity<List<RequestDto>> getRequestsByOwnerOfEvent(
             @PathVariable @Positive final Long userId,
-            @PathVariable @Positive final Long eventId
+            @PathVariable @Positive final Long eventId,
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "size", defaultValue = "10") @Positive @Max(1000) final int size
     ) {
-        return requestService.getRequestsByOwnerOfEvent(userId, eventId);
+        return requestService.getRequestsByOwnerOfEvent(userId, eventId, cursor, size).toResponseEntity();
     }
 
     @PostMapping("/user/{userId}/event/{eventId}")
@@ -50,4 +57,11 @@ public class InternalRequestController {
     public Long countConfirmedRequests(final @NotNull @RequestBody Long eventId) {
         return requestService.countConfirmedRequests(eventId);
     }
+
+    // Уведомление event-service об изменении события: сбрасывает локальный снимок события
+    @DeleteMapping(path = "/cache/event/{eventId}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void evictEvent(final @PathVariable @Positive Long eventId) {
+        eventRepository.evict(eventId);
+    }
 }
@@ -1,10 +1,14 @@
 package ru.practicum.controller;
 
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.RequestService;
 import ru.practicum.request.dto.RequestDto;
 import ru.practicum.exception.*;
@@ -20,8 +24,20 @@ public class RequestControllerPrivate {
     private final RequestService requestService;
 
     @GetMapping
-    public List<RequestDto> getParticipationRequest(@PathVariable @Positive Long userId) throws UserNotFoundException {
-        return requestService.getCurrentUserRequests(userId);
+    public ResponseEntity<List<RequestDto>> getParticipationRequest(@PathVariable @Positive Long userId,
+                                                                    @RequestParam(name = "cursor", required = false) String cursor,
+                                                                    @RequestParam(name = "size", defaultValue = "10") @Positive @Max(1000) int size) throws UserNotFoundException {
+        return requestService.getCurrentUserRequests(userId, cursor, size).toResponseEntity();
+    }
+
+    /**
+     * Все заявки пользователя JSON-массивом, который пишется потоком по мере чтения из БД
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportParticipationRequests(@PathVariable @Positive Long userId) throws UserNotFoundException {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(requestService.exportCurrentUserRequests(userId));
     }
 
     @PostMapping
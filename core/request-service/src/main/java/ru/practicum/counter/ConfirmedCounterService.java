@@ -0,0 +1,117 @@
+package ru.practicum.counter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.RequestRepository;
+
+import java.util.Optional;
+
+/**
+ * Счетчик подтвержденных заявок по событию для event-service.
+ * Пересчитывается в той же транзакции, что меняет статусы заявок, под блокировкой строки счетчика,
+ * поэтому номера изменений упорядочены так же, как зафиксированные значения.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmedCounterService {
+
+    private final EventConfirmedCounterRepository counterRepository;
+    private final RequestRepository requestRepository;
+    private final ConfirmedRequestsPublisher confirmedRequestsPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recount(Long eventId) {
+        EventConfirmedCounter counter = lockCounter(eventId);
+        counter.setConfirmed(requestRepository.countConfirmedRequests(eventId));
+        counter.setSeq(counter.getSeq() + 1);
+        log.debug("Main-service. recount confirmed requests: eventId = {}, confirmed = {}, seq = {}",
+                eventId, counter.getConfirmed(), counter.getSeq());
+
+        publishAfterCommit(eventId);
+    }
+
+    /**
+     * Занимает место для новой подтвержденной заявки: счетчик увеличивается, только если он меньше лимита.
+     * Проверка и увеличение выполняются одним оператором, поэтому лимит не превышается,
+     * а параллельные заявки на одно событие ждут друг друга только до коммита.
+     * При откате транзакции место освобождается вместе с заявкой. Строка счетчика создается заранее через ensureCounter.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public boolean tryReserve(Long eventId, int participantLimit) {
+        boolean reserved = counterRepository.incrementIfBelowLimit(eventId, participantLimit) > 0;
+        log.debug("Main-service. reserve participant: eventId = {}, limit = {}, reserved = {}",
+                eventId, participantLimit, reserved);
+        if (reserved) {
+            publishAfterCommit(eventId);
+        }
+        return reserved;
+    }
+
+    /**
+     * Блокирует строку счетчика до конца транзакции: массовое подтверждение заявок события
+     * читает свободные места и увеличивает счетчик без гонок с другими подтверждениями.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public EventConfirmedCounter lock(Long eventId) {
+        return lockCounter(eventId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addConfirmed(EventConfirmedCounter counter, int confirmed) {
+        counter.setConfirmed(counter.getConfirmed() + confirmed);
+        counter.setSeq(counter.getSeq() + 1);
+        publishAfterCommit(counter.getEventId());
+    }
+
+    // Вызывается вне транзакции заявки: вставка идет в отдельной транзакции со своим соединением
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void ensureCounter(Long eventId) {
+        if (!counterRepository.existsById(eventId)) {
+            createCounter(eventId);
+        }
+    }
+
+    // В event-service уходит только зафиксированное значение
+    private void publishAfterCommit(Long eventId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                confirmedRequestsPublisher.publishAsync(eventId);
+            }
+        });
+    }
+
+    private EventConfirmedCounter lockCounter(Long eventId) {
+        Optional<EventConfirmedCounter> counter = counterRepository.findByIdForUpdate(eventId);
+        if (counter.isPresent()) {
+            return counter.get();
+        }
+        createCounter(eventId);
+        return counterRepository.findByIdForUpdate(eventId).orElseThrow();
+    }
+
+    private void createCounter(Long eventId) {
+        try {
+            newTransaction().executeWithoutResult(status -> counterRepository.insertCounted(eventId));
+        } catch (DataIntegrityViolationException e) {
+            // Строку параллельно создала другая транзакция
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
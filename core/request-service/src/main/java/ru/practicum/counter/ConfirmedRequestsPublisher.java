@@ -0,0 +1,54 @@
+package ru.practicum.counter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.feign.EventRepository;
+import ru.practicum.request.dto.ConfirmedRequestsUpdateDto;
+
+/**
+ * Отправляет счетчики подтвержденных заявок в event-service.
+ * Доставка не гарантируется с первого раза: неподтвержденные счетчики периодически отправляются повторно,
+ * а event-service применяет значение, только если его номер больше уже примененного.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConfirmedRequestsPublisher {
+
+    private final EventConfirmedCounterRepository counterRepository;
+    private final EventRepository eventRepository;
+
+    @Value("${request.confirmed-counter.retry-batch-size:100}")
+    private int retryBatchSize;
+
+    @Async
+    public void publishAsync(Long eventId) {
+        counterRepository.findById(eventId).ifPresent(this::publish);
+    }
+
+    @Scheduled(fixedDelayString = "${request.confirmed-counter.retry-interval:PT30S}")
+    public void publishPending() {
+        counterRepository.findUnpublished(Limit.of(retryBatchSize)).forEach(this::publish);
+    }
+
+    private void publish(EventConfirmedCounter counter) {
+        if (counter.getPublishedSeq() >= counter.getSeq()) {
+            return;
+        }
+        try {
+            eventRepository.updateConfirmedRequests(counter.getEventId(), ConfirmedRequestsUpdateDto.builder()
+                    .confirmed(counter.getConfirmed())
+                    .seq(counter.getSeq())
+                    .build());
+            counterRepository.markPublished(counter.getEventId(), counter.getSeq());
+        } catch (Exception e) {
+            log.warn("Main-service. publish confirmed requests failed: eventId = {}, seq = {}, error = {}",
+                    counter.getEventId(), counter.getSeq(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.counter;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Число подтвержденных заявок события. seq растет при каждом пересчете,
+ * publishedSeq - последний номер, который принял event-service.
+ */
+@Entity
+@Table(name = "event_confirmed_counter")
+@Getter
+@Setter
+@NoArgsConstructor
+public class EventConfirmedCounter {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    private Long confirmed;
+
+    private Long seq;
+
+    @Column(name = "published_seq")
+    private Long publishedSeq;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.counter;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface EventConfirmedCounterRepository extends JpaRepository<EventConfirmedCounter, Long> {
+
+    // Новая строка сразу получает текущее число подтвержденных заявок
+    @Modifying
+    @Query(value = "INSERT INTO event_confirmed_counter (event_id, confirmed, seq, published_seq) " +
+            "SELECT :eventId, COUNT(*), 0, 0 FROM request WHERE event_id = :eventId AND status = 'CONFIRMED'",
+            nativeQuery = true)
+    void insertCounted(@Param("eventId") Long eventId);
+
+    // Резервирование места: одна условная запись без предварительного чтения, limit = 0 - без ограничения
+    @Modifying
+    @Query("UPDATE EventConfirmedCounter c SET c.confirmed = c.confirmed + 1, c.seq = c.seq + 1 " +
+            "WHERE c.eventId = :eventId AND (:limit = 0 OR c.confirmed < :limit)")
+    int incrementIfBelowLimit(@Param("eventId") Long eventId, @Param("limit") long limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM EventConfirmedCounter c WHERE c.eventId = :eventId")
+    Optional<EventConfirmedCounter> findByIdForUpdate(@Param("eventId") Long eventId);
+
+    @Query("SELECT c FROM EventConfirmedCounter c WHERE c.publishedSeq < c.seq ORDER BY c.eventId")
+    List<EventConfirmedCounter> findUnpublished(Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE EventConfirmedCounter c SET c.publishedSeq = :seq " +
+            "WHERE c.eventId = :eventId AND c.publishedSeq < :seq")
+    int markPublished(@Param("eventId") Long eventId, @Param("seq") Long seq);
+}
@@ -1,21 +1,42 @@
 package ru.practicum.feign;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
-import ru.practicum.event.Event;
-import ru.practicum.event.dto.EventDtoFull;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.dto.EventSnapshotDto;
+import ru.practicum.request.dto.ConfirmedRequestsUpdateDto;
 
 @Component
 @RequiredArgsConstructor
 public class EventRepository {
 
     private final EventFeignClient eventFeignClient;
+    private final Cache<Long, EventSnapshotDto> eventSnapshotCache;
 
-    public Event findByIdAndInitiatorId(final Long eventId, final Long initiatorId) {
-        return eventFeignClient.findByIdAndInitiatorId(eventId, initiatorId);
+    // Опубликованное событие event-service больше не редактирует (изменяются только PENDING и CANCELED),
+    // поэтому лимит и модерация в опубликованном снимке не устаревают. Неопубликованный снимок мог устареть
+    // на экземпляре, до которого не дошел сброс, и перечитывается, чтобы не отказать в заявке на уже опубликованное событие
+    public EventSnapshotDto findSnapshotById(final Long eventId) {
+        EventSnapshotDto snapshot = eventSnapshotCache.getIfPresent(eventId);
+        if (snapshot != null && snapshot.getState() == EventState.PUBLISHED) {
+            return snapshot;
+        }
+        return findFreshSnapshotById(eventId);
     }
 
-    public EventDtoFull findById(final Long eventId) {
-        return eventFeignClient.findById(eventId);
+    // Снимок в обход кэша для проверок, от которых зависит число мест; прочитанное значение заменяет запись в кэше
+    public EventSnapshotDto findFreshSnapshotById(final Long eventId) {
+        EventSnapshotDto snapshot = eventFeignClient.findSnapshotById(eventId);
+        eventSnapshotCache.put(eventId, snapshot);
+        return snapshot;
+    }
+
+    public void updateConfirmedRequests(final Long eventId, final ConfirmedRequestsUpdateDto update) {
+        eventFeignClient.updateConfirmedRequests(eventId, update);
+    }
+
+    public void evict(final Long eventId) {
+        eventSnapshotCache.invalidate(eventId);
     }
 }
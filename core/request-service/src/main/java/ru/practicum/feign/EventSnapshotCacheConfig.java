@@ -0,0 +1,38 @@
+package ru.practicum.feign;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.event.dto.EventSnapshotDto;
+
+import java.time.Duration;
+
+/**
+ * Локальный кэш снимков событий из event-service для проверки заявок.
+ * Записи сбрасываются уведомлением event-service после изменения события, а TTL ограничивает устаревание,
+ * если уведомление не дошло (например, до другого экземпляра request-service).
+ * Решения о местах не зависят от устаревшей записи: см. EventRepository.findSnapshotById.
+ * Метрики доступны как cache.gets, cache.size и т.д. с тегом cache=event-snapshots.
+ */
+@Configuration
+public class EventSnapshotCacheConfig {
+
+    @Value("${event-snapshot-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${event-snapshot-cache.ttl:PT5M}")
+    private Duration ttl;
+
+    @Bean
+    public Cache<Long, EventSnapshotDto> eventSnapshotCache(MeterRegistry meterRegistry) {
+        return CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .<Long, EventSnapshotDto>build(), "event-snapshots");
+    }
+}
@@ -6,3 +6,29 @@ CREATE TABLE IF NOT EXISTS request
     requester_id BIGINT NOT NULL,
     status varchar(25)  NOT NULL
 );
+
+-- разовые миграции данных, выполненные RequestDataMigrations
+CREATE TABLE IF NOT EXISTS request_data_migration
+(
+    name       VARCHAR(100) PRIMARY KEY,
+    applied_at TIMESTAMP WITHOUT TIME ZONE NOT NULL
+);
+
+-- счетчик подтвержденных заявок по событию, published_seq - последний номер, принятый event-service
+CREATE TABLE IF NOT EXISTS event_confirmed_counter
+(
+    event_id      BIGINT PRIMARY KEY,
+    confirmed     BIGINT NOT NULL,
+    seq           BIGINT NOT NULL,
+    published_seq BIGINT NOT NULL
+);
+
+-- уникальный индекс (requester_id, event_id) создает миграция request-dedup-unique-index (RequestDataMigrations)
+-- заявки события: постраничный список по курсору в порядке id, подсчет подтвержденных
+-- и массовая смена статусов ожидающих заявок (статус проверяется среди заявок одного события)
+CREATE INDEX IF NOT EXISTS idx_request_event_id ON request (event_id, id);
+-- заявки пользователя в порядке создания
+CREATE INDEX IF NOT EXISTS idx_request_requester_created ON request (requester_id, created);
+-- прежние индексы по event_id, их запросы обслуживает idx_request_event_id
+DROP INDEX IF EXISTS idx_request_event_status;
+DROP INDEX IF EXISTS idx_request_event_confirmed;
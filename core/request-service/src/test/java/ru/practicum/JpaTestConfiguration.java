@@ -0,0 +1,27 @@
+package ru.practicum;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import ru.practicum.counter.ConfirmedCounterService;
+
+/**
+ * Контекст @DataJpaTest для RequestServiceImpl: сущности, репозитории и сервисы заявок
+ * без Feign-клиентов, планировщиков и @Async из RequestApplication
+ */
+@Configuration(proxyBeanMethods = false)
+@EntityScan(basePackages = "ru.practicum")
+@EnableJpaRepositories(basePackages = "ru.practicum")
+@Import({RequestServiceImpl.class, RequestMapper.class, RequestStatusRepository.class, RequestExportRepository.class,
+        ConfirmedCounterService.class, RequestDataMigrations.class})
+public class JpaTestConfiguration {
+
+    @Bean
+    public ObjectMapper objectMapper() {
+        return new ObjectMapper().registerModule(new JavaTimeModule());
+    }
+}
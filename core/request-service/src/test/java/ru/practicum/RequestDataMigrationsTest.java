@@ -0,0 +1,81 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.counter.ConfirmedRequestsPublisher;
+import ru.practicum.feign.EventRepository;
+import ru.practicum.feign.UserRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Заполнение счетчиков для заявок, созданных до event_confirmed_counter: один раз,
+ * без изменения уже существующих счетчиков
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class RequestDataMigrationsTest {
+
+    @Autowired
+    private RequestDataMigrations requestDataMigrations;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Удаленные сервисы в тестовом контексте не нужны, но их ждет RequestServiceImpl
+    @MockitoBean
+    private EventRepository eventRepository;
+    @MockitoBean
+    private UserRepository userRepository;
+    @MockitoBean
+    private ConfirmedRequestsPublisher confirmedRequestsPublisher;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM request");
+        jdbcTemplate.update("DELETE FROM event_confirmed_counter");
+    }
+
+    @Test
+    void countersAreBackfilledOnce() {
+        insertRequest(1, 10, "CONFIRMED");
+        insertRequest(2, 10, "CONFIRMED");
+        insertRequest(3, 10, "PENDING");
+        insertRequest(1, 20, "PENDING");
+        insertRequest(1, 30, "CONFIRMED");
+        // Счетчик события 30 уже ведется и не меняется
+        jdbcTemplate.update("INSERT INTO event_confirmed_counter VALUES (30, 1, 4, 4)");
+        jdbcTemplate.update("DELETE FROM request_data_migration");
+
+        requestDataMigrations.afterPropertiesSet();
+        insertRequest(1, 40, "CONFIRMED");
+        requestDataMigrations.afterPropertiesSet();
+
+        List<Map<String, Object>> counters = jdbcTemplate.queryForList(
+                "SELECT event_id, confirmed, seq, published_seq FROM event_confirmed_counter ORDER BY event_id");
+        assertThat(counters).extracting(row -> List.of(
+                        ((Number) row.get("event_id")).longValue(),
+                        ((Number) row.get("confirmed")).longValue(),
+                        ((Number) row.get("seq")).longValue(),
+                        ((Number) row.get("published_seq")).longValue()))
+                .containsExactly(
+                        List.of(10L, 2L, 1L, 0L),
+                        List.of(20L, 0L, 1L, 0L),
+                        List.of(30L, 1L, 4L, 4L));
+    }
+
+    private void insertRequest(long requesterId, long eventId, String status) {
+        jdbcTemplate.update("INSERT INTO request (created, event_id, requester_id, status) VALUES (now(), ?, ?, ?)",
+                eventId, requesterId, status);
+    }
+}
@@ -0,0 +1,107 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.counter.ConfirmedRequestsPublisher;
+import ru.practicum.feign.EventRepository;
+import ru.practicum.feign.UserRepository;
+import ru.practicum.request.dto.RequestDto;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Выгрузка идет keyset-страницами вне транзакции: все заявки отдаются по одному разу в порядке списка,
+ * в том числе при одинаковом created на границе страниц
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+@TestPropertySource(properties = "request.export.page-size=3")
+class RequestExportRepositoryTest {
+
+    private static final long REQUESTER_ID = 1L;
+    private static final long EVENT_ID = 10L;
+    private static final int REQUESTS = 7;
+
+    @Autowired
+    private RequestExportRepository requestExportRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Удаленные сервисы в тестовом контексте не нужны, но их ждет RequestServiceImpl
+    @MockitoBean
+    private EventRepository eventRepository;
+    @MockitoBean
+    private UserRepository userRepository;
+    @MockitoBean
+    private ConfirmedRequestsPublisher confirmedRequestsPublisher;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM request");
+    }
+
+    @Test
+    void requesterExportPagesByCreatedAndId() {
+        // Две заявки на каждый момент created, чтобы граница страницы проходила внутри одинаковых created
+        LocalDateTime created = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < REQUESTS; i++) {
+            insertRequest(REQUESTER_ID, EVENT_ID + i, created.minusMinutes(i / 2));
+        }
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM request WHERE requester_id = ? ORDER BY created, id", Long.class, REQUESTER_ID);
+
+        List<Long> exported = new ArrayList<>();
+        long count = requestExportRepository.streamByRequesterId(REQUESTER_ID, collectOutsideTransaction(exported));
+
+        assertThat(count).isEqualTo(REQUESTS);
+        assertThat(exported).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void eventExportPagesById() {
+        for (int i = 0; i < REQUESTS; i++) {
+            insertRequest(REQUESTER_ID + i, EVENT_ID, LocalDateTime.now());
+        }
+        insertRequest(REQUESTER_ID, EVENT_ID + 1, LocalDateTime.now());
+        List<Long> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM request WHERE event_id = ? ORDER BY id", Long.class, EVENT_ID);
+
+        List<Long> exported = new ArrayList<>();
+        long count = requestExportRepository.streamByEventId(EVENT_ID, collectOutsideTransaction(exported));
+
+        assertThat(count).isEqualTo(REQUESTS);
+        assertThat(exported).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void emptyExport() {
+        assertThat(requestExportRepository.streamByEventId(EVENT_ID, request -> { })).isZero();
+    }
+
+    private Consumer<RequestDto> collectOutsideTransaction(List<Long> ids) {
+        return request -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            ids.add(request.getId());
+        };
+    }
+
+    private void insertRequest(long requesterId, long eventId, LocalDateTime created) {
+        jdbcTemplate.update("INSERT INTO request (created, event_id, requester_id, status) VALUES (?, ?, ?, 'PENDING')",
+                created, eventId, requesterId);
+    }
+}
@@ -0,0 +1,121 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверка схемы request на живом PostgreSQL: удаление повторных заявок перед уникальным индексом
+ * (миграция RequestDataMigrations) и планы основных запросов (EXPLAIN должен выбирать индексы из schema.sql).
+ * Таблицы заявок пересоздаются, поэтому нужна отдельная пустая база.
+ * Запуск: mvn test -pl core/request-service -Drequest.test.postgres.url=jdbc:postgresql://localhost:5432/request-test
+ * (учетные данные - request.test.postgres.username / request.test.postgres.password).
+ */
+@EnabledIfSystemProperty(named = "request.test.postgres.url", matches = ".+")
+class RequestSchemaPostgresTest {
+
+    private static final int EVENTS = 200;
+    private static final int REQUESTERS = 100;
+
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                System.getProperty("request.test.postgres.url"),
+                System.getProperty("request.test.postgres.username", "dbuser"),
+                System.getProperty("request.test.postgres.password", "12345"));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS request, event_confirmed_counter, request_data_migration");
+    }
+
+    @Test
+    void duplicatesAreRemovedBeforeUniqueIndex() throws SQLException {
+        // Таблица в состоянии до уникального индекса
+        jdbcTemplate.execute("CREATE TABLE request (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "created TIMESTAMP WITHOUT TIME ZONE, event_id BIGINT NOT NULL, requester_id BIGINT NOT NULL, "
+                + "status varchar(25) NOT NULL)");
+        jdbcTemplate.execute("CREATE INDEX idx_request_event_status ON request (event_id, status)");
+        jdbcTemplate.execute("CREATE TABLE event_confirmed_counter (event_id BIGINT PRIMARY KEY, "
+                + "confirmed BIGINT NOT NULL, seq BIGINT NOT NULL, published_seq BIGINT NOT NULL)");
+        insertRequest(1, 1, 1, "PENDING");
+        insertRequest(2, 1, 1, "CONFIRMED");
+        insertRequest(3, 1, 1, "CONFIRMED");
+        insertRequest(4, 2, 1, "PENDING");
+        insertRequest(5, 2, 1, "REJECTED");
+        insertRequest(6, 3, 1, "CONFIRMED");
+        jdbcTemplate.update("INSERT INTO event_confirmed_counter VALUES (1, 3, 5, 5)");
+
+        applySchema();
+        applySchema();
+
+        assertThat(jdbcTemplate.queryForList("SELECT id FROM request ORDER BY id", Long.class))
+                .containsExactly(2L, 4L, 6L);
+        Map<String, Object> counter = jdbcTemplate.queryForMap(
+                "SELECT confirmed, seq FROM event_confirmed_counter WHERE event_id = 1");
+        assertThat(((Number) counter.get("confirmed")).longValue()).isEqualTo(2);
+        assertThat(((Number) counter.get("seq")).longValue()).isEqualTo(6);
+        // Прежний индекс по event_id удален, на вставке остаются три вторичных индекса
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT indexname FROM pg_indexes WHERE tablename = 'request' AND indexname <> 'request_pkey'", String.class))
+                .containsExactlyInAnyOrder("uq_request_requester_event", "idx_request_event_id",
+                        "idx_request_requester_created");
+    }
+
+    @Test
+    void queriesUseRequestIndexes() throws SQLException {
+        applySchema();
+        // Каждый пользователь подает заявку на каждое событие, подтверждена каждая десятая
+        jdbcTemplate.update("INSERT INTO request (created, event_id, requester_id, status) "
+                + "SELECT now() - make_interval(secs => e * ? + u), e, u, "
+                + "CASE WHEN u % 10 = 0 THEN 'CONFIRMED' WHEN u % 10 = 1 THEN 'REJECTED' ELSE 'PENDING' END "
+                + "FROM generate_series(1, ?) e, generate_series(1, ?) u", REQUESTERS, EVENTS, REQUESTERS);
+        jdbcTemplate.execute("VACUUM ANALYZE request");
+
+        assertUsesIndex("SELECT COUNT(*) FROM request WHERE event_id = 7 AND status = 'CONFIRMED'",
+                "idx_request_event_id");
+        assertUsesIndex("SELECT event_id, COUNT(*) FROM request WHERE event_id IN (7, 8, 9) AND status = 'CONFIRMED' "
+                + "GROUP BY event_id", "idx_request_event_id");
+        assertUsesIndex("SELECT 1 FROM request WHERE requester_id = 7 AND event_id = 7 LIMIT 1",
+                "uq_request_requester_event");
+        assertUsesIndex("SELECT * FROM request WHERE event_id = 7 AND status = 'PENDING'",
+                "idx_request_event_id");
+        assertUsesIndex("SELECT * FROM request WHERE requester_id = 7 ORDER BY created, id LIMIT 20",
+                "idx_request_requester_created");
+        assertUsesIndex("SELECT * FROM request WHERE event_id = 7 AND id > 0 ORDER BY id LIMIT 20",
+                "idx_request_event_id");
+    }
+
+    private void assertUsesIndex(String sql, String index) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+
+        assertThat(String.join("\n", plan)).as(sql).contains(index);
+    }
+
+    private void applySchema() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema.sql"));
+        }
+        new RequestDataMigrations(jdbcTemplate, new TransactionTemplate(new DataSourceTransactionManager(dataSource)))
+                .afterPropertiesSet();
+    }
+
+    private void insertRequest(long id, long requesterId, long eventId, String status) {
+        jdbcTemplate.update("INSERT INTO request (id, created, event_id, requester_id, status) "
+                + "VALUES (?, now(), ?, ?, ?)", id, eventId, requesterId, status);
+    }
+}
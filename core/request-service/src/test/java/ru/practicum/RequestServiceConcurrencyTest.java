@@ -0,0 +1,182 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.counter.ConfirmedRequestsPublisher;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.dto.EventSnapshotDto;
+import ru.practicum.exception.ParticipantLimitExceededException;
+import ru.practicum.exception.RequestAlreadyExistsException;
+import ru.practicum.feign.EventRepository;
+import ru.practicum.feign.UserRepository;
+import ru.practicum.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntToLongFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Параллельные заявки на событие с лимитом: места занимаются условным UPDATE счетчика,
+ * поэтому подтверждается ровно participantLimit заявок, а счетчик совпадает с числом подтвержденных строк
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class RequestServiceConcurrencyTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final long INITIATOR_ID = 1_000L;
+    private static final int PARTICIPANT_LIMIT = 5;
+    private static final int REQUESTS = 40;
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private EventRepository eventRepository;
+    @MockitoBean
+    private UserRepository userRepository;
+    @MockitoBean
+    private ConfirmedRequestsPublisher confirmedRequestsPublisher;
+
+    @BeforeEach
+    void setUp() {
+        when(eventRepository.findSnapshotById(EVENT_ID)).thenReturn(snapshot(PARTICIPANT_LIMIT));
+        when(eventRepository.findFreshSnapshotById(EVENT_ID)).thenReturn(snapshot(PARTICIPANT_LIMIT));
+        when(userRepository.findById(anyLong()))
+                .thenAnswer(invocation -> User.builder().id(invocation.getArgument(0)).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM request");
+        jdbcTemplate.update("DELETE FROM event_confirmed_counter");
+    }
+
+    @Test
+    void parallelRequestsConfirmExactlyParticipantLimit() throws InterruptedException {
+        List<Throwable> failures = createInParallel();
+
+        assertThat(failures).hasSize(REQUESTS - PARTICIPANT_LIMIT)
+                .allMatch(ParticipantLimitExceededException.class::isInstance);
+        assertThat(confirmedRows()).isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(counter()).isEqualTo(confirmedRows());
+    }
+
+    @Test
+    void cancelledPlaceIsTakenAgain() throws InterruptedException {
+        createInParallel();
+        Long requestId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM request WHERE status = 'CONFIRMED'", Long.class);
+        Long requesterId = jdbcTemplate.queryForObject(
+                "SELECT requester_id FROM request WHERE id = ?", Long.class, requestId);
+
+        requestService.cancelRequests(requesterId, requestId);
+        List<Throwable> failures = createInParallel(REQUESTS + 1);
+
+        assertThat(failures).hasSize(REQUESTS - 1);
+        assertThat(confirmedRows()).isEqualTo(PARTICIPANT_LIMIT);
+        assertThat(counter()).isEqualTo(confirmedRows());
+    }
+
+    @Test
+    void parallelDuplicatesOfOneUserCreateSingleRequest() throws InterruptedException {
+        List<Throwable> failures = createInParallel(i -> 1L);
+
+        assertThat(failures).hasSize(REQUESTS - 1)
+                .allMatch(RequestAlreadyExistsException.class::isInstance);
+        assertThat(confirmedRows()).isEqualTo(1);
+        assertThat(counter()).isEqualTo(1);
+    }
+
+    @Test
+    void staleLimitIsRecheckedBeforeRefusal() {
+        when(eventRepository.findSnapshotById(EVENT_ID)).thenReturn(snapshot(1));
+        requestService.createRequest(1L, EVENT_ID);
+
+        requestService.createRequest(2L, EVENT_ID);
+
+        assertThat(confirmedRows()).isEqualTo(2);
+        assertThat(counter()).isEqualTo(2);
+    }
+
+    private EventSnapshotDto snapshot(int participantLimit) {
+        return EventSnapshotDto.builder()
+                .id(EVENT_ID)
+                .initiatorId(INITIATOR_ID)
+                .state(EventState.PUBLISHED)
+                .participantLimit(participantLimit)
+                .requestModeration(false)
+                .build();
+    }
+
+    private List<Throwable> createInParallel() throws InterruptedException {
+        return createInParallel(1);
+    }
+
+    // Пользователи firstUserId..firstUserId + REQUESTS - 1 одновременно подают по одной заявке
+    private List<Throwable> createInParallel(long firstUserId) throws InterruptedException {
+        return createInParallel(i -> firstUserId + i);
+    }
+
+    private List<Throwable> createInParallel(IntToLongFunction userIdByIndex) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                long userId = userIdByIndex.applyAsLong(i);
+                futures.add(executor.submit((Callable<Object>) () -> {
+                    start.await();
+                    return requestService.createRequest(userId, EVENT_ID);
+                }));
+            }
+            start.countDown();
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<?> future : futures) {
+                try {
+                    future.get(30, TimeUnit.SECONDS);
+                } catch (ExecutionException e) {
+                    failures.add(e.getCause());
+                } catch (TimeoutException e) {
+                    throw new AssertionError("createRequest did not finish", e);
+                }
+            }
+            return failures;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long confirmedRows() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM request WHERE event_id = ? AND status = 'CONFIRMED'", Long.class, EVENT_ID);
+    }
+
+    private long counter() {
+        return jdbcTemplate.queryForObject(
+                "SELECT confirmed FROM event_confirmed_counter WHERE event_id = ?", Long.class, EVENT_ID);
+    }
+}
@@ -0,0 +1,114 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.counter.ConfirmedRequestsPublisher;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.dto.EventSnapshotDto;
+import ru.practicum.exception.RequestNotPendingException;
+import ru.practicum.feign.EventRepository;
+import ru.practicum.feign.UserRepository;
+import ru.practicum.request.RequestStatus;
+import ru.practicum.request.dto.RequestStatusUpdateDto;
+import ru.practicum.user.User;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+/**
+ * Статус меняется только у ожидающих заявок: если среди запрошенных есть уже обработанная,
+ * возвращается 409, а изменения запроса откатываются
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class RequestStatusUpdateTest {
+
+    private static final long EVENT_ID = 1L;
+    private static final long INITIATOR_ID = 1_000L;
+
+    @Autowired
+    private RequestService requestService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockitoBean
+    private EventRepository eventRepository;
+    @MockitoBean
+    private UserRepository userRepository;
+    @MockitoBean
+    private ConfirmedRequestsPublisher confirmedRequestsPublisher;
+
+    @BeforeEach
+    void setUp() {
+        when(eventRepository.findSnapshotById(EVENT_ID)).thenReturn(snapshot());
+        when(eventRepository.findFreshSnapshotById(EVENT_ID)).thenReturn(snapshot());
+        when(userRepository.findById(anyLong()))
+                .thenAnswer(invocation -> User.builder().id(invocation.getArgument(0)).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM request");
+        jdbcTemplate.update("DELETE FROM event_confirmed_counter");
+    }
+
+    @Test
+    void rejectingConfirmedRequestIsConflict() {
+        Long confirmedId = requestService.createRequest(1L, EVENT_ID).getId();
+        Long pendingId = requestService.createRequest(2L, EVENT_ID).getId();
+        update(RequestStatus.CONFIRMED, confirmedId);
+
+        assertThatThrownBy(() -> update(RequestStatus.REJECTED, pendingId, confirmedId))
+                .isInstanceOf(RequestNotPendingException.class);
+
+        assertThat(status(confirmedId)).isEqualTo("CONFIRMED");
+        assertThat(status(pendingId)).isEqualTo("PENDING");
+    }
+
+    @Test
+    void confirmingProcessedRequestIsConflictAndKeepsCounter() {
+        Long rejectedId = requestService.createRequest(1L, EVENT_ID).getId();
+        Long pendingId = requestService.createRequest(2L, EVENT_ID).getId();
+        update(RequestStatus.REJECTED, rejectedId);
+
+        assertThatThrownBy(() -> update(RequestStatus.CONFIRMED, pendingId, rejectedId))
+                .isInstanceOf(RequestNotPendingException.class);
+
+        assertThat(status(rejectedId)).isEqualTo("REJECTED");
+        assertThat(status(pendingId)).isEqualTo("PENDING");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT confirmed FROM event_confirmed_counter WHERE event_id = ?", Long.class, EVENT_ID)).isZero();
+    }
+
+    private void update(RequestStatus status, Long... requestIds) {
+        requestService.updateRequests(INITIATOR_ID, EVENT_ID,
+                RequestStatusUpdateDto.builder().status(status).requestIds(List.of(requestIds)).build());
+    }
+
+    private String status(Long requestId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM request WHERE id = ?", String.class, requestId);
+    }
+
+    private EventSnapshotDto snapshot() {
+        return EventSnapshotDto.builder()
+                .id(EVENT_ID)
+                .initiatorId(INITIATOR_ID)
+                .state(EventState.PUBLISHED)
+                .participantLimit(10)
+                .requestModeration(true)
+                .build();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.feign;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.junit.jupiter.api.Test;
+import ru.practicum.enums.EventState;
+import ru.practicum.event.dto.EventSnapshotDto;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventRepositoryTest {
+
+    private static final long EVENT_ID = 1L;
+
+    private final EventFeignClient eventFeignClient = mock(EventFeignClient.class);
+    private final Cache<Long, EventSnapshotDto> cache = Caffeine.newBuilder().build();
+    private final EventRepository eventRepository = new EventRepository(eventFeignClient, cache);
+
+    @Test
+    void publishedSnapshotIsServedFromCache() {
+        when(eventFeignClient.findSnapshotById(EVENT_ID)).thenReturn(snapshot(EventState.PUBLISHED));
+
+        eventRepository.findSnapshotById(EVENT_ID);
+        EventSnapshotDto snapshot = eventRepository.findSnapshotById(EVENT_ID);
+
+        assertThat(snapshot.getState()).isEqualTo(EventState.PUBLISHED);
+        verify(eventFeignClient, times(1)).findSnapshotById(EVENT_ID);
+    }
+
+    @Test
+    void unpublishedSnapshotIsReadAgain() {
+        // Событие опубликовано, но сброс кэша до этого экземпляра не дошел
+        cache.put(EVENT_ID, snapshot(EventState.PENDING));
+        when(eventFeignClient.findSnapshotById(EVENT_ID)).thenReturn(snapshot(EventState.PUBLISHED));
+
+        EventSnapshotDto snapshot = eventRepository.findSnapshotById(EVENT_ID);
+
+        assertThat(snapshot.getState()).isEqualTo(EventState.PUBLISHED);
+        assertThat(cache.getIfPresent(EVENT_ID)).isSameAs(snapshot);
+    }
+
+    @Test
+    void freshSnapshotBypassesCache() {
+        cache.put(EVENT_ID, snapshot(EventState.PUBLISHED));
+        EventSnapshotDto fresh = snapshot(EventState.PUBLISHED);
+        when(eventFeignClient.findSnapshotById(EVENT_ID)).thenReturn(fresh);
+
+        assertThat(eventRepository.findFreshSnapshotById(EVENT_ID)).isSameAs(fresh);
+        assertThat(cache.getIfPresent(EVENT_ID)).isSameAs(fresh);
+    }
+
+    private EventSnapshotDto snapshot(EventState state) {
+        return EventSnapshotDto.builder()
+                .id(EVENT_ID)
+                .initiatorId(2L)
+                .state(state)
+                .participantLimit(10)
+                .requestModeration(true)
+                .build();
+    }
+}
@@ -1,7 +1,7 @@
 package ru.practicum;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -14,7 +14,7 @@ import java.util.List;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE (:ids IS NULL OR u.id IN :ids)")
-    Page<User> findAllByIds(@Param("ids") List<Long> ids, Pageable pageable);
+    Slice<User> findAllByIds(@Param("ids") List<Long> ids, Pageable pageable);
 
     boolean existsByEmail(String email);
 }
\ No newline at end of file
@@ -4,7 +4,9 @@ import ru.practicum.user.dto.UserDto;
 import ru.practicum.exception.UserAlreadyExistsException;
 import ru.practicum.user.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface UserService {
@@ -15,4 +17,6 @@ public interface UserService {
     List<UserDto> findAllUsers(Integer from, Integer size, List<Long> ids);
 
     Optional<User> findById(Long userId);
+
+    Map<Long, User> findAllByIds(Collection<Long> userIds);
 }
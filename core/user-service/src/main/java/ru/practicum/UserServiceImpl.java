@@ -3,18 +3,24 @@ package ru.practicum;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.feign.EventRepository;
 import ru.practicum.user.dto.UserDto;
 import ru.practicum.exception.UserAlreadyExistsException;
 import ru.practicum.user.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,13 +31,14 @@ public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
     private final UserMapper userMapper;
+    private final EventRepository eventRepository;
 
     public List<UserDto> findAllUsers(Integer from, Integer size, List<Long> ids) {
         log.info("Main-service. findAll input: from = {}, size = {}, ids = {}", from, size, ids);
 
         Pageable pageable = PageRequest.of(from / size, size, Sort.by("id").ascending());
         List<Long> idsForQuery = (ids == null || ids.isEmpty()) ? null : ids;
-        Page<User> page = userRepository.findAllByIds(idsForQuery, pageable);
+        Slice<User> page = userRepository.findAllByIds(idsForQuery, pageable);
 
         log.info("Main-service. findAll success: found {} users", page.getNumberOfElements());
 
@@ -45,6 +52,21 @@ public class UserServiceImpl implements UserService {
         return userRepository.findById(userId);
     }
 
+    @Override
+    public Map<Long, User> findAllByIds(final Collection<Long> userIds) {
+        log.info("Main-service. findAllByIds input: {} ids", userIds.size());
+
+        if (userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        log.info("Main-service. findAllByIds success: found {} users", users.size());
+
+        return users;
+    }
+
     @Override
     @Transactional
     public UserDto createUser(UserDto userDto) throws UserAlreadyExistsException {
@@ -67,6 +89,13 @@ public class UserServiceImpl implements UserService {
         log.info("Main-service. deleteUserById input: userId = {}", userId);
 
         userRepository.deleteById(userId);
+        // Сброс кэша после фиксации, чтобы event-service не успел перечитать старое значение
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eventRepository.evictUser(userId);
+            }
+        });
 
         log.info("Main-service. deleteUserById success");
     }
@@ -4,12 +4,17 @@ import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.practicum.user.User;
 import ru.practicum.UserService;
 import ru.practicum.exception.UserNotFoundException;
 
+import java.util.Map;
+import java.util.Set;
+
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/internal/user")
@@ -22,4 +27,9 @@ public class InternalUserController {
         return userService.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(String.format("User with id=%d was not found", userId)));
     }
+
+    @PostMapping("/batch")
+    public Map<Long, User> findAllByIds(@RequestBody final Set<Long> userIds) {
+        return userService.findAllByIds(userIds);
+    }
 }
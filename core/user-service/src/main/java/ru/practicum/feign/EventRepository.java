@@ -0,0 +1,22 @@
+package ru.practicum.feign;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EventRepository {
+
+    private final EventFeignClient eventFeignClient;
+
+    // Ошибка уведомления не отменяет изменение пользователя: кэш event-service устареет не дольше своего TTL
+    public void evictUser(final Long userId) {
+        try {
+            eventFeignClient.evictUser(userId);
+        } catch (RuntimeException e) {
+            log.warn("Main-service. evictUser failed: id = {}, {}", userId, e.getMessage());
+        }
+    }
+}
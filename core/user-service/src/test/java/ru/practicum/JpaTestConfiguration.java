@@ -0,0 +1,28 @@
+package ru.practicum;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * Контекст @DataJpaTest: только сущности и репозитории, без компонентов UserApplication
+ * (Feign-клиенты)
+ */
+@Configuration(proxyBeanMethods = false)
+@EntityScan(basePackages = "ru.practicum")
+@EnableJpaRepositories(basePackages = "ru.practicum")
+public class JpaTestConfiguration {
+
+    @Bean
+    public SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+}
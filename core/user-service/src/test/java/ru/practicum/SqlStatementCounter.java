@@ -0,0 +1,34 @@
+package ru.practicum;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Запоминает SQL, который Hibernate отправляет в БД, чтобы тесты проверяли число и вид запросов
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public void reset() {
+        statements.clear();
+    }
+
+    public List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    public long countQueries() {
+        return statements.stream()
+                .filter(sql -> sql.toLowerCase().contains("count("))
+                .count();
+    }
+}
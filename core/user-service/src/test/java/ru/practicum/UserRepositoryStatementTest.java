@@ -0,0 +1,59 @@
+package ru.practicum;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ContextConfiguration;
+import ru.practicum.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Список пользователей выбирается одним запросом с LIMIT size + 1, без COUNT(*)
+ */
+@DataJpaTest
+@ContextConfiguration(classes = JpaTestConfiguration.class)
+class UserRepositoryStatementTest {
+
+    private static final PageRequest PAGE = PageRequest.of(0, 2, Sort.by("id").ascending());
+
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    private final List<Long> ids = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 5; i++) {
+            ids.add(userRepository.save(User.builder().name("user " + i).email("user" + i + "@mail.ru").build()).getId());
+        }
+        userRepository.flush();
+        sqlStatementCounter.reset();
+    }
+
+    @Test
+    void allUsersPageIsSingleQueryWithoutCount() {
+        assertSingleQuery(userRepository.findAllByIds(null, PAGE));
+    }
+
+    @Test
+    void usersByIdsPageIsSingleQueryWithoutCount() {
+        assertSingleQuery(userRepository.findAllByIds(ids, PAGE));
+    }
+
+    private void assertSingleQuery(Slice<User> page) {
+        assertThat(page.getContent()).hasSize(2);
+        assertThat(page.hasNext()).isTrue();
+        assertThat(sqlStatementCounter.statements()).hasSize(1);
+        assertThat(sqlStatementCounter.countQueries()).isZero();
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.stats.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.stats.EndpointHitDto;
+import ru.practicum.stats.mapper.EndpointHitMapper;
+import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.repository.StatsServerRepository;
+import ru.practicum.stats.service.StatsService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Запись хитов пачкой из batchSize штук: по одному через addStat, одной пачкой через addStats
+ * и только вставка сырых строк без агрегатов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsIngestBenchmark {
+
+    @Param({"h2"})
+    private String db;
+
+    @Param({"10", "100", "500"})
+    private int batchSize;
+
+    private StatsServerContext context;
+    private StatsService statsService;
+    private StatsServerRepository statsServerRepository;
+    private List<EndpointHitDto> batch;
+    private List<EndpointHitEntity> entities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = StatsServerContext.start(db);
+        statsService = context.bean(StatsService.class);
+        statsServerRepository = context.bean(StatsServerRepository.class);
+        batch = context.randomHits(batchSize);
+        EndpointHitMapper mapper = context.bean(EndpointHitMapper.class);
+        entities = batch.stream()
+                .map(mapper::toEntity)
+                .toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleInserts() {
+        for (EndpointHitDto hit : batch) {
+            statsService.addStat(hit);
+        }
+    }
+
+    @Benchmark
+    public boolean batchInsert() {
+        return statsService.addStats(batch);
+    }
+
+    @Benchmark
+    public void rawBatchInsert() {
+        statsServerRepository.saveAllInBatch(entities);
+    }
+}
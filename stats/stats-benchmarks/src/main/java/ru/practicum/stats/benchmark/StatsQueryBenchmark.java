@@ -0,0 +1,86 @@
+package ru.practicum.stats.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.stats.ViewStatsDto;
+import ru.practicum.stats.exception.StartDateIsAfterEndDateException;
+import ru.practicum.stats.repository.HitDictionary;
+import ru.practicum.stats.repository.StatsServerRepository;
+import ru.practicum.stats.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Чтение статистики: через StatsServiceImpl.getStat (агрегаты + сырые крайние часы)
+ * и напрямую по сырым хитам через EndpointHitCustomRepositoryImpl.getViewStats.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatsQueryBenchmark {
+
+    @Param({"h2"})
+    private String db;
+
+    @Param({"10000", "100000"})
+    private int hits;
+
+    // 0 - запрос без фильтра по uris
+    @Param({"0", "1", "10", "100"})
+    private int uriCount;
+
+    @Param({"false", "true"})
+    private boolean unique;
+
+    private StatsServerContext context;
+    private StatsService statsService;
+    private StatsServerRepository statsServerRepository;
+    private List<String> uris;
+    private List<Integer> uriIds;
+    private LocalDateTime start;
+    private LocalDateTime end;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = StatsServerContext.start(db);
+        context.seed(hits);
+        statsService = context.bean(StatsService.class);
+        statsServerRepository = context.bean(StatsServerRepository.class);
+        uris = StatsServerContext.uris(uriCount);
+        uriIds = context.bean(HitDictionary.class).findUriIds(uris);
+        // Неполные часы по краям, чтобы задействовать и агрегаты, и сырые хиты
+        start = context.getSeedStart().plusMinutes(90).plusSeconds(17);
+        end = context.getSeedEnd().minusMinutes(45);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> serviceGetStat() throws StartDateIsAfterEndDateException {
+        return statsService.getStat(start, end, uris, unique, false);
+    }
+
+    @Benchmark
+    public List<ViewStatsDto> repositoryGetViewStats() {
+        return statsServerRepository.getViewStats(uriIds, start, end, unique);
+    }
+}
@@ -0,0 +1,133 @@
+package ru.practicum.stats.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.stats.EndpointHitDto;
+import ru.practicum.stats.StatsServerApplication;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
+import ru.practicum.stats.service.StatsService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Поднимает контекст stats-server без веб-сервера, config-server и Eureka.
+ * БД выбирается параметром db: h2 (встроенная, по умолчанию) или postgresql
+ * (адрес и учетные данные берутся из системных свойств bench.postgres.*).
+ */
+public class StatsServerContext implements AutoCloseable {
+
+    public static final String APP = "ewm-main-service";
+    public static final int URI_POOL = 200;
+    public static final int IP_POOL = 5000;
+
+    private static final int SEED_BATCH = 1000;
+    private static final int COMPACTION_BATCH = 10_000;
+
+    private final ConfigurableApplicationContext context;
+    // Сгенерированные хиты укладываются в [seedStart, seedEnd]
+    private final LocalDateTime seedEnd = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).minusHours(1);
+    private final LocalDateTime seedStart = seedEnd.minusDays(7);
+    private final Random random = new Random(42);
+
+    private StatsServerContext(ConfigurableApplicationContext context) {
+        this.context = context;
+    }
+
+    public static StatsServerContext start(String db) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.config.import=",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.discovery.enabled=false",
+                "--eureka.client.enabled=false",
+                "--spring.sql.init.mode=always",
+                "--spring.jpa.hibernate.ddl-auto=none",
+                "--spring.sql.init.platform=" + db,
+                "--stats.hot-window.enabled=false",
+                "--stats.partitioning.enabled=false",
+                "--stats.rollup.compaction-interval=PT1H",
+                "--logging.level.root=WARN",
+                "--logging.level.ru.practicum.stats=WARN"));
+
+        switch (db) {
+            case "h2" -> args.addAll(List.of(
+                    "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driverClassName=org.h2.Driver"));
+            case "postgresql" -> args.addAll(List.of(
+                    "--spring.datasource.url=" + System.getProperty("bench.postgres.url",
+                            "jdbc:postgresql://localhost:5432/stats-db?reWriteBatchedInserts=true"),
+                    "--spring.datasource.driverClassName=org.postgresql.Driver",
+                    "--spring.datasource.username=" + System.getProperty("bench.postgres.username", "dbuser"),
+                    "--spring.datasource.password=" + System.getProperty("bench.postgres.password", "12345")));
+            default -> throw new IllegalArgumentException("Unsupported db %s, expected h2 or postgresql".formatted(db));
+        }
+
+        return new StatsServerContext(new SpringApplicationBuilder(StatsServerApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args.toArray(new String[0])));
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public LocalDateTime getSeedStart() {
+        return seedStart;
+    }
+
+    public LocalDateTime getSeedEnd() {
+        return seedEnd;
+    }
+
+    // Заливает хиты через обычный путь записи (вместе с агрегатами) и схлопывает агрегаты
+    public void seed(int hits) {
+        StatsService statsService = bean(StatsService.class);
+        for (int offset = 0; offset < hits; offset += SEED_BATCH) {
+            statsService.addStats(randomHits(Math.min(SEED_BATCH, hits - offset)));
+        }
+        HitRollupRepository rollups = bean(HitRollupRepository.class);
+        HitSketchRepository sketches = bean(HitSketchRepository.class);
+        int compacted;
+        do {
+            compacted = rollups.compact(COMPACTION_BATCH) + sketches.compact(COMPACTION_BATCH);
+        } while (compacted > 0);
+    }
+
+    public List<EndpointHitDto> randomHits(int count) {
+        long seconds = ChronoUnit.SECONDS.between(seedStart, seedEnd);
+        List<EndpointHitDto> hits = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int ip = random.nextInt(IP_POOL);
+            hits.add(EndpointHitDto.builder()
+                    .app(APP)
+                    .uri(uri(random.nextInt(URI_POOL)))
+                    .ip("10.0.%d.%d".formatted(ip / 250, ip % 250 + 1))
+                    .timestamp(seedStart.plusSeconds(random.nextLong(seconds + 1)))
+                    .build());
+        }
+        return hits;
+    }
+
+    public static List<String> uris(int count) {
+        List<String> uris = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            uris.add(uri(i));
+        }
+        return uris;
+    }
+
+    private static String uri(int index) {
+        return "/events/" + index;
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,165 @@
+package ru.practicum.stats;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Неблокирующая запись хитов: addStat только кладет хит в ограниченную очередь,
+ * фоновый поток выгружает ее пачками через POST /hit/batch. Неотправленная пачка повторяется
+ * retry-attempts раз с удваивающейся паузой retry-backoff и только после этого считается потерянной.
+ */
+public class BufferedClientRestStat implements ClientRestStat, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(BufferedClientRestStat.class);
+
+    private final ClientRestStat delegate;
+    private final StatsClientProperties.Buffer properties;
+    private final BlockingQueue<EndpointHitDto> queue;
+    private final AtomicLong droppedHits = new AtomicLong();
+    private final AtomicLong sentHits = new AtomicLong();
+    private final AtomicLong failedHits = new AtomicLong();
+    private final AtomicLong retriedBatches = new AtomicLong();
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public BufferedClientRestStat(ClientRestStat delegate,
+                                  StatsClientProperties.Buffer properties,
+                                  MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(properties.getCapacity());
+
+        if (meterRegistry != null) {
+            registerMetrics(meterRegistry);
+        }
+
+        this.flusher = new Thread(this::flushLoop, "stats-hit-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public Boolean addStat(EndpointHitDto dto) {
+        if (!running) {
+            droppedHits.incrementAndGet();
+            return false;
+        }
+        return switch (properties.getOverflowPolicy()) {
+            case DROP_OLDEST -> offerDroppingOldest(dto);
+            case BLOCK -> offerBlocking(dto);
+        };
+    }
+
+    @Override
+    public Boolean addStats(List<EndpointHitDto> dtos) {
+        boolean accepted = true;
+        for (EndpointHitDto dto : dtos) {
+            accepted &= addStat(dto);
+        }
+        return accepted;
+    }
+
+    @Override
+    public List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        return delegate.getStat(start, end, uris, unique);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(properties.getShutdownTimeout().toMillis());
+        if (!queue.isEmpty()) {
+            logger.warn("Stats client stopped with {} unsent hits", queue.size());
+        }
+    }
+
+    private boolean offerDroppingOldest(EndpointHitDto dto) {
+        while (!queue.offer(dto)) {
+            if (queue.poll() != null) {
+                droppedHits.incrementAndGet();
+            }
+        }
+        return true;
+    }
+
+    private boolean offerBlocking(EndpointHitDto dto) {
+        try {
+            if (queue.offer(dto, properties.getBlockTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        droppedHits.incrementAndGet();
+        return false;
+    }
+
+    private void flushLoop() {
+        List<EndpointHitDto> batch = new ArrayList<>(properties.getBatchSize());
+        while (running || !queue.isEmpty()) {
+            try {
+                EndpointHitDto first = queue.poll(properties.getPollTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, properties.getBatchSize() - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error in stats hit flusher: {}", e.getMessage(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<EndpointHitDto> batch) throws InterruptedException {
+        long backoff = properties.getRetryBackoff().toMillis();
+        for (int attempt = 1; ; attempt++) {
+            if (Boolean.TRUE.equals(delegate.addStats(batch))) {
+                sentHits.addAndGet(batch.size());
+                return;
+            }
+            if (attempt > properties.getRetryAttempts()) {
+                failedHits.addAndGet(batch.size());
+                logger.warn("Stats client dropped a batch of {} hits after {} attempts", batch.size(), attempt);
+                return;
+            }
+            retriedBatches.incrementAndGet();
+            TimeUnit.MILLISECONDS.sleep(backoff);
+            backoff *= 2;
+        }
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry) {
+        Gauge.builder("stats.client.buffer.size", queue, BlockingQueue::size)
+                .description("Number of hits waiting to be sent to stats-server")
+                .register(meterRegistry);
+        FunctionCounter.builder("stats.client.hits.dropped", droppedHits, AtomicLong::get)
+                .description("Hits dropped because the buffer was full")
+                .register(meterRegistry);
+        FunctionCounter.builder("stats.client.hits.sent", sentHits, AtomicLong::get)
+                .register(meterRegistry);
+        FunctionCounter.builder("stats.client.hits.failed", failedHits, AtomicLong::get)
+                .description("Hits lost because stats-server rejected or did not receive a batch after all retries")
+                .register(meterRegistry);
+        FunctionCounter.builder("stats.client.batches.retried", retriedBatches, AtomicLong::get)
+                .description("Batch send attempts repeated after a failure")
+                .register(meterRegistry);
+    }
+}
@@ -6,5 +6,7 @@ import java.util.List;
 public interface ClientRestStat {
     Boolean addStat(EndpointHitDto dto);
 
+    Boolean addStats(List<EndpointHitDto> dtos);
+
     List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique);
 }
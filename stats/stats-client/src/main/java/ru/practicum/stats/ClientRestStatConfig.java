@@ -1,21 +1,35 @@
 package ru.practicum.stats;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
 @Configuration
+@EnableConfigurationProperties(StatsClientProperties.class)
 public class ClientRestStatConfig {
 
     @Bean
     @LoadBalanced
     public RestClient.Builder loadBalancedRestClientBuilder() {
-        return RestClient.builder();
+        // java.net.http.HttpClient не закрепляет виртуальные потоки и не ограничен маленьким пулом соединений,
+        // который получил бы HttpComponents по умолчанию, окажись он в classpath сервиса
+        return RestClient.builder()
+                .requestFactory(new JdkClientHttpRequestFactory());
     }
 
     @Bean
-    public ClientRestStat clientRestStat(@LoadBalanced RestClient.Builder restClientBuilder) {
-        return new ClientRestStatImpl(restClientBuilder);
+    public ClientRestStat clientRestStat(@LoadBalanced RestClient.Builder restClientBuilder,
+                                         StatsClientProperties properties,
+                                         ObjectProvider<MeterRegistry> meterRegistry) {
+        ClientRestStat client = new ClientRestStatImpl(restClientBuilder);
+        if (!properties.getBuffer().isEnabled()) {
+            return client;
+        }
+        return new BufferedClientRestStat(client, properties.getBuffer(), meterRegistry.getIfAvailable());
     }
-}
\ No newline at end of file
+}
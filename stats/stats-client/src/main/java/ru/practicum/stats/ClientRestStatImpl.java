@@ -4,7 +4,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.client.loadbalancer.LoadBalanced;
 import org.springframework.http.ResponseEntity;
-import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -16,7 +15,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
-@Component
 public class ClientRestStatImpl implements ClientRestStat {
 
     private static final Logger logger = LoggerFactory.getLogger(ClientRestStatImpl.class);
@@ -45,6 +43,21 @@ public class ClientRestStatImpl implements ClientRestStat {
         }
     }
 
+    @Override
+    public Boolean addStats(List<EndpointHitDto> dtos) {
+        try {
+            logger.info("Sending POST request to stats-service/hit/batch with {} hits", dtos.size());
+            return restClient.post()
+                    .uri("/hit/batch")
+                    .body(dtos)
+                    .retrieve()
+                    .body(Boolean.class);
+        } catch (Exception e) {
+            logger.error("Error while sending POST request to stats-service/hit/batch: {}", e.getMessage(), e);
+            return false;
+        }
+    }
+
     @Override
     public List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
         if (start.isAfter(end)) {
@@ -0,0 +1,8 @@
+package ru.practicum.stats;
+
+public enum HitOverflowPolicy {
+    // Вытеснять самые старые хиты из заполненного буфера
+    DROP_OLDEST,
+    // Ждать освобождения места не дольше block-timeout, затем отбрасывать хит
+    BLOCK
+}
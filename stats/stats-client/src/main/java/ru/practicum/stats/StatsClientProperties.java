@@ -0,0 +1,99 @@
+package ru.practicum.stats;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "stats.client")
+public class StatsClientProperties {
+
+    private final Buffer buffer = new Buffer();
+
+    public Buffer getBuffer() {
+        return buffer;
+    }
+
+    public static class Buffer {
+        private boolean enabled = false;
+        private int capacity = 10_000;
+        private int batchSize = 500;
+        private Duration pollTimeout = Duration.ofSeconds(1);
+        private Duration blockTimeout = Duration.ofMillis(100);
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+        private int retryAttempts = 3;
+        private Duration retryBackoff = Duration.ofMillis(500);
+        private HitOverflowPolicy overflowPolicy = HitOverflowPolicy.DROP_OLDEST;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getPollTimeout() {
+            return pollTimeout;
+        }
+
+        public void setPollTimeout(Duration pollTimeout) {
+            this.pollTimeout = pollTimeout;
+        }
+
+        public Duration getBlockTimeout() {
+            return blockTimeout;
+        }
+
+        public void setBlockTimeout(Duration blockTimeout) {
+            this.blockTimeout = blockTimeout;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+
+        public int getRetryAttempts() {
+            return retryAttempts;
+        }
+
+        public void setRetryAttempts(int retryAttempts) {
+            this.retryAttempts = retryAttempts;
+        }
+
+        public Duration getRetryBackoff() {
+            return retryBackoff;
+        }
+
+        public void setRetryBackoff(Duration retryBackoff) {
+            this.retryBackoff = retryBackoff;
+        }
+
+        public HitOverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(HitOverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.stats;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BufferedClientRestStatTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private BufferedClientRestStat client;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        client.destroy();
+    }
+
+    @Test
+    void failedBatchIsRetriedUntilSent() throws InterruptedException {
+        FlakyDelegate delegate = new FlakyDelegate(2);
+        client = new BufferedClientRestStat(delegate, buffer(3), meterRegistry);
+
+        client.addStat(hit("/events/1"));
+
+        awaitCounter("stats.client.hits.sent", 1);
+        assertThat(delegate.calls.get()).isEqualTo(3);
+        assertThat(delegate.sent).hasSize(1);
+        assertThat(counter("stats.client.hits.failed")).isZero();
+        assertThat(counter("stats.client.batches.retried")).isEqualTo(2);
+    }
+
+    @Test
+    void batchIsCountedAsFailedAfterAllRetries() throws InterruptedException {
+        FlakyDelegate delegate = new FlakyDelegate(Integer.MAX_VALUE);
+        client = new BufferedClientRestStat(delegate, buffer(2), meterRegistry);
+
+        client.addStat(hit("/events/1"));
+
+        awaitCounter("stats.client.hits.failed", 1);
+        assertThat(delegate.calls.get()).isEqualTo(3);
+        assertThat(counter("stats.client.hits.sent")).isZero();
+    }
+
+    private StatsClientProperties.Buffer buffer(int retryAttempts) {
+        StatsClientProperties.Buffer buffer = new StatsClientProperties.Buffer();
+        buffer.setPollTimeout(Duration.ofMillis(50));
+        buffer.setRetryAttempts(retryAttempts);
+        buffer.setRetryBackoff(Duration.ofMillis(10));
+        return buffer;
+    }
+
+    private EndpointHitDto hit(String uri) {
+        return EndpointHitDto.builder()
+                .app("main-service")
+                .uri(uri)
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    private double counter(String name) {
+        return meterRegistry.get(name).functionCounter().count();
+    }
+
+    private void awaitCounter(String name, double expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (counter(name) < expected && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertThat(counter(name)).isEqualTo(expected);
+    }
+
+    // Отклоняет первые failures вызовов, затем принимает пачки
+    private static class FlakyDelegate implements ClientRestStat {
+        private final int failures;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<EndpointHitDto> sent = new CopyOnWriteArrayList<>();
+
+        FlakyDelegate(int failures) {
+            this.failures = failures;
+        }
+
+        @Override
+        public Boolean addStat(EndpointHitDto dto) {
+            sent.add(dto);
+            return true;
+        }
+
+        @Override
+        public Boolean addStats(List<EndpointHitDto> dtos) {
+            if (calls.incrementAndGet() <= failures) {
+                return false;
+            }
+            sent.addAll(dtos);
+            return true;
+        }
+
+        @Override
+        public List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+            return List.of();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.stats.controller;
 
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -30,11 +31,12 @@ public class StatsController {
     public List<ViewStatsDto> getStats(@RequestParam LocalDateTime start,
                                        @RequestParam LocalDateTime end,
                                        @RequestParam(required = false, defaultValue = "") List<String> uris,
-                                       @RequestParam(required = false, defaultValue = "false") Boolean unique) throws StartDateIsAfterEndDateException {
+                                       @RequestParam(required = false, defaultValue = "false") Boolean unique,
+                                       @RequestParam(required = false, defaultValue = "false") Boolean approximate) throws StartDateIsAfterEndDateException {
         if (uris == null) {
             uris = Collections.emptyList();
         }
-        return service.getStat(start, end, uris, unique);
+        return service.getStat(start, end, uris, unique, approximate);
     }
 
     @PostMapping("/hit")
@@ -42,4 +44,10 @@ public class StatsController {
     public boolean saveHit(@Valid @RequestBody EndpointHitDto endpointHitDto) {
         return service.addStat(endpointHitDto);
     }
+
+    @PostMapping("/hit/batch")
+    @ResponseStatus(HttpStatus.CREATED)
+    public boolean saveHits(@Valid @NotEmpty @RequestBody List<EndpointHitDto> endpointHitDtos) {
+        return service.addStats(endpointHitDtos);
+    }
 }
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 import ru.practicum.stats.ErrorResponseDto;
 import ru.practicum.stats.exception.StartDateIsAfterEndDateException;
 
@@ -40,6 +41,7 @@ public class ErrorHandler {
     }
 
     @ExceptionHandler({MissingServletRequestParameterException.class,
+            HandlerMethodValidationException.class,
             StartDateIsAfterEndDateException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponseDto handleIncorrectDataExceptions(Exception ex, WebRequest request) {
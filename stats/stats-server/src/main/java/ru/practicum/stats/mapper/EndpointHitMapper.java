@@ -5,12 +5,19 @@ import org.mapstruct.Mapping;
 import ru.practicum.stats.EndpointHitDto;
 import ru.practicum.stats.config.CommonMapperConfiguration;
 import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.repository.HitDictionary;
 
-@Mapper(config = CommonMapperConfiguration.class)
+@Mapper(config = CommonMapperConfiguration.class, uses = {HitDictionary.class, IpAddressMapper.class})
 public interface EndpointHitMapper {
 
     @Mapping(target = "id", ignore = true)
+    @Mapping(target = "appId", source = "app", qualifiedByName = "appId")
+    @Mapping(target = "uriId", source = "uri", qualifiedByName = "uriId")
+    @Mapping(target = "ip", source = "ip", qualifiedByName = "ipToBytes")
     EndpointHitEntity toEntity(EndpointHitDto dto);
 
+    @Mapping(target = "app", source = "appId", qualifiedByName = "appName")
+    @Mapping(target = "uri", source = "uriId", qualifiedByName = "uri")
+    @Mapping(target = "ip", source = "ip", qualifiedByName = "ipToString")
     EndpointHitDto toDto(EndpointHitEntity entity);
 }
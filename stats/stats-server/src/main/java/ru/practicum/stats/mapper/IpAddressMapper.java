@@ -0,0 +1,31 @@
+package ru.practicum.stats.mapper;
+
+import org.mapstruct.Named;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+// IP хранится в бинарном виде: 4 байта для IPv4 и 16 для IPv6
+public final class IpAddressMapper {
+
+    private IpAddressMapper() {
+    }
+
+    @Named("ipToBytes")
+    public static byte[] toBytes(String ip) {
+        try {
+            return InetAddress.getByName(ip).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address: " + ip, e);
+        }
+    }
+
+    @Named("ipToString")
+    public static String toText(byte[] ip) {
+        try {
+            return InetAddress.getByAddress(ip).getHostAddress();
+        } catch (UnknownHostException e) {
+            throw new IllegalArgumentException("Invalid IP address length: " + ip.length, e);
+        }
+    }
+}
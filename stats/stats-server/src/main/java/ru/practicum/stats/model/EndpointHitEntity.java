@@ -30,14 +30,14 @@ public class EndpointHitEntity {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
-    private String app;
+    @Column(name = "app_id", nullable = false)
+    private Integer appId;
 
-    @Column(nullable = false)
-    private String uri;
+    @Column(name = "uri_id", nullable = false)
+    private Integer uriId;
 
     @Column(nullable = false)
-    private String ip;
+    private byte[] ip;
 
     @Column(name = "hit_timestamp", nullable = false)
     private LocalDateTime timestamp;
@@ -0,0 +1,121 @@
+package ru.practicum.stats.model;
+
+import java.util.Arrays;
+
+/**
+ * HyperLogLog-скетч для приближенного подсчета уникальных IP.
+ * 2^12 регистров по байту (4 КБ на скетч), стандартная ошибка 1.04 / sqrt(4096) ≈ 1.6%,
+ * то есть примерно в 95% случаев оценка отличается от точного значения не более чем на 3.3%.
+ * Скетчи объединяются поэлементным максимумом, поэтому бакеты можно сливать в любом порядке.
+ * Пока заполнено мало регистров, скетч хранится разреженно: по 3 байта (номер регистра, значение)
+ * на каждый ненулевой регистр, так что скетч бакета с одним IP занимает 3 байта вместо 4 КБ.
+ * Длина разреженной формы кратна 3 и поэтому никогда не равна 4096 - по ней формы и различаются.
+ */
+public class HyperLogLog {
+
+    public static final int PRECISION = 12;
+    public static final int REGISTERS = 1 << PRECISION;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+    private static final int SPARSE_ENTRY_BYTES = 3;
+
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(new byte[REGISTERS]);
+    }
+
+    private HyperLogLog(byte[] registers) {
+        this.registers = registers;
+    }
+
+    public static HyperLogLog fromBytes(byte[] bytes) {
+        if (bytes.length == REGISTERS) {
+            return new HyperLogLog(Arrays.copyOf(bytes, REGISTERS));
+        }
+        if (bytes.length % SPARSE_ENTRY_BYTES != 0) {
+            throw new IllegalArgumentException("Sketch must have %d registers or sparse entries, got %d bytes"
+                    .formatted(REGISTERS, bytes.length));
+        }
+        byte[] registers = new byte[REGISTERS];
+        for (int i = 0; i < bytes.length; i += SPARSE_ENTRY_BYTES) {
+            int index = ((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff);
+            registers[index] = bytes[i + 2];
+        }
+        return new HyperLogLog(registers);
+    }
+
+    public void add(byte[] value) {
+        long hash = hash(value);
+        int index = (int) (hash >>> (Long.SIZE - PRECISION));
+        byte rank = (byte) Math.min(Long.numberOfLeadingZeros(hash << PRECISION) + 1, Long.SIZE - PRECISION + 1);
+        if (rank > registers[index]) {
+            registers[index] = rank;
+        }
+    }
+
+    public HyperLogLog merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+        return this;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // На малых мощностях точнее линейный подсчет по пустым регистрам
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public byte[] toBytes() {
+        int filled = 0;
+        for (byte register : registers) {
+            if (register != 0) {
+                filled++;
+            }
+        }
+        if (filled * SPARSE_ENTRY_BYTES >= REGISTERS) {
+            return Arrays.copyOf(registers, REGISTERS);
+        }
+
+        byte[] sparse = new byte[filled * SPARSE_ENTRY_BYTES];
+        int offset = 0;
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                sparse[offset++] = (byte) (i >>> 8);
+                sparse[offset++] = (byte) i;
+                sparse[offset++] = registers[i];
+            }
+        }
+        return sparse;
+    }
+
+    // FNV-1a с финальным перемешиванием из MurmurHash3
+    private static long hash(byte[] value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.stats.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+@Getter
+@RequiredArgsConstructor
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    public LocalDateTime bucketOf(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(unit);
+    }
+
+    // Начало первого бакета, целиком лежащего не раньше timestamp
+    public LocalDateTime ceil(LocalDateTime timestamp) {
+        LocalDateTime bucket = bucketOf(timestamp);
+        return bucket.equals(timestamp) ? bucket : bucket.plus(1, unit);
+    }
+}
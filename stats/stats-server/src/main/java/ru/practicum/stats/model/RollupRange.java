@@ -0,0 +1,44 @@
+package ru.practicum.stats.model;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Разбиение интервала [start, end] на части:
+ * [start, hoursFrom) и [hoursTo, end] - по сырым хитам,
+ * [hoursFrom, daysFrom) и [daysTo, hoursTo) - по часовым агрегатам,
+ * [daysFrom, daysTo) - по суточным агрегатам.
+ */
+@Getter
+@ToString
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class RollupRange {
+    private final LocalDateTime start;
+    private final LocalDateTime hoursFrom;
+    private final LocalDateTime daysFrom;
+    private final LocalDateTime daysTo;
+    private final LocalDateTime hoursTo;
+    private final LocalDateTime end;
+
+    // Пусто, если в интервал не помещается ни одного полного часа
+    public static Optional<RollupRange> of(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime hoursFrom = RollupGranularity.HOUR.ceil(start);
+        LocalDateTime hoursTo = RollupGranularity.HOUR.bucketOf(end);
+        if (!hoursFrom.isBefore(hoursTo)) {
+            return Optional.empty();
+        }
+
+        LocalDateTime daysFrom = RollupGranularity.DAY.ceil(hoursFrom);
+        LocalDateTime daysTo = RollupGranularity.DAY.bucketOf(hoursTo);
+        if (!daysFrom.isBefore(daysTo)) {
+            daysFrom = hoursTo;
+            daysTo = hoursTo;
+        }
+        return Optional.of(new RollupRange(start, hoursFrom, daysFrom, daysTo, hoursTo, end));
+    }
+}
@@ -1,10 +1,13 @@
 package ru.practicum.stats.repository;
 
 import ru.practicum.stats.ViewStatsDto;
+import ru.practicum.stats.model.EndpointHitEntity;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 public interface EndpointHitCustomRepository {
-    List<ViewStatsDto> getViewStats(List<String> uris, LocalDateTime start, LocalDateTime end, boolean unique);
+    List<ViewStatsDto> getViewStats(List<Integer> uriIds, LocalDateTime start, LocalDateTime end, boolean unique);
+
+    void saveAllInBatch(List<EndpointHitEntity> hits);
 }
@@ -3,10 +3,13 @@ package ru.practicum.stats.repository;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.Tuple;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 import ru.practicum.stats.model.EndpointHitEntity;
 import ru.practicum.stats.ViewStatsDto;
@@ -19,33 +22,52 @@ import java.util.List;
 @RequiredArgsConstructor
 public class EndpointHitCustomRepositoryImpl implements EndpointHitCustomRepository {
 
+    private static final int INSERT_BATCH_SIZE = 500;
+    private static final String INSERT_HIT_SQL =
+            "INSERT INTO endpoint_hits (app_id, uri_id, ip, hit_timestamp) VALUES (?, ?, ?, ?)";
+
     @PersistenceContext
     private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final HitDictionary hitDictionary;
 
     @Override
-    public List<ViewStatsDto> getViewStats(List<String> uris, LocalDateTime start, LocalDateTime end, boolean unique) {
+    public List<ViewStatsDto> getViewStats(List<Integer> uriIds, LocalDateTime start, LocalDateTime end, boolean unique) {
         CriteriaBuilder cb = entityManager.getCriteriaBuilder();
-        CriteriaQuery<ViewStatsDto> query = cb.createQuery(ViewStatsDto.class);
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
         Root<EndpointHitEntity> root = query.from(EndpointHitEntity.class);
 
-        query.select(cb.construct(ViewStatsDto.class,
-                root.get("app"),
-                root.get("uri"),
-                unique ? cb.countDistinct(root.get("ip")) : cb.count(root.get("ip"))
-        ));
+        Expression<Long> hits = unique ? cb.countDistinct(root.get("ip")) : cb.count(root.get("ip"));
+        query.multiselect(root.get("appId"), root.get("uriId"), hits);
 
         List<Predicate> predicates = new ArrayList<>();
         predicates.add(cb.between(root.get("timestamp"), start, end));
 
-        if (uris != null && !uris.isEmpty()) {
-            predicates.add(root.get("uri").in(uris));
+        if (uriIds != null && !uriIds.isEmpty()) {
+            predicates.add(root.get("uriId").in(uriIds));
         }
         query.where(predicates.toArray(new Predicate[0]));
 
-        query.groupBy(root.get("app"), root.get("uri"));
-        query.orderBy(cb.desc(unique ? cb.countDistinct(root.get("ip")) : cb.count(root.get("ip"))));
+        query.groupBy(root.get("appId"), root.get("uriId"));
+        query.orderBy(cb.desc(hits));
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(tuple -> hitDictionary.toViewStats(
+                        tuple.get(0, Integer.class),
+                        tuple.get(1, Integer.class),
+                        tuple.get(2, Long.class)))
+                .toList();
+    }
 
-        return entityManager.createQuery(query).getResultList();
+    // IDENTITY-ключ не дает Hibernate батчить вставки, поэтому пишем пачками через JDBC
+    @Override
+    public void saveAllInBatch(List<EndpointHitEntity> hits) {
+        jdbcTemplate.batchUpdate(INSERT_HIT_SQL, hits, INSERT_BATCH_SIZE, (ps, hit) -> {
+            ps.setInt(1, hit.getAppId());
+            ps.setInt(2, hit.getUriId());
+            ps.setBytes(3, hit.getIp());
+            ps.setObject(4, hit.getTimestamp());
+        });
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.mapstruct.Named;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.ViewStatsDto;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словари приложений и uri: хиты и агрегаты хранят целочисленные id вместо строк.
+ * Значения кешируются в памяти, новые записываются в отдельной транзакции,
+ * чтобы гонка вставки одного значения не откатывала запись хитов. Поэтому id определяются до открытия
+ * транзакции записи (см. HitBatchWriter), иначе писатель держит два соединения из пула одновременно.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Dictionary apps = new Dictionary("stats_apps", "name");
+    private final Dictionary uris = new Dictionary("stats_uris", "uri");
+
+    @Named("appId")
+    public Integer appId(String app) {
+        return apps.idOf(app);
+    }
+
+    @Named("uriId")
+    public Integer uriId(String uri) {
+        return uris.idOf(uri);
+    }
+
+    @Named("appName")
+    public String appName(Integer appId) {
+        return apps.valueOf(appId);
+    }
+
+    @Named("uri")
+    public String uri(Integer uriId) {
+        return uris.valueOf(uriId);
+    }
+
+    // Только уже известные uri: по неизвестным хитов заведомо нет
+    public List<Integer> findUriIds(List<String> values) {
+        List<Integer> ids = new ArrayList<>();
+        for (String value : values) {
+            Integer id = uris.find(value);
+            if (id != null) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    public ViewStatsDto toViewStats(Integer appId, Integer uriId, Long hits) {
+        return new ViewStatsDto(appName(appId), uri(uriId), hits);
+    }
+
+    private class Dictionary {
+        private final String findIdSql;
+        private final String findValueSql;
+        private final String insertSql;
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+        private final Map<Integer, String> values = new ConcurrentHashMap<>();
+
+        Dictionary(String table, String column) {
+            this.findIdSql = "SELECT id FROM %s WHERE %s = ?".formatted(table, column);
+            this.findValueSql = "SELECT %s FROM %s WHERE id = ?".formatted(column, table);
+            this.insertSql = "INSERT INTO %s (%s) VALUES (?)".formatted(table, column);
+        }
+
+        Integer idOf(String value) {
+            Integer id = find(value);
+            if (id != null) {
+                return id;
+            }
+            try {
+                id = newTransaction().execute(status -> insert(value));
+            } catch (DuplicateKeyException e) {
+                // Значение параллельно добавил другой поток или экземпляр сервиса
+                id = find(value);
+            }
+            remember(value, id);
+            return id;
+        }
+
+        Integer find(String value) {
+            Integer id = ids.get(value);
+            if (id == null) {
+                id = jdbcTemplate.query(findIdSql, rs -> rs.next() ? rs.getInt(1) : null, value);
+                if (id != null) {
+                    remember(value, id);
+                }
+            }
+            return id;
+        }
+
+        String valueOf(Integer id) {
+            String value = values.get(id);
+            if (value == null) {
+                value = jdbcTemplate.queryForObject(findValueSql, String.class, id);
+                remember(value, id);
+            }
+            return value;
+        }
+
+        private Integer insert(String value) {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(insertSql, new String[]{"id"});
+                ps.setString(1, value);
+                return ps;
+            }, keyHolder);
+            return keyHolder.getKeyAs(Integer.class);
+        }
+
+        private void remember(String value, Integer id) {
+            ids.put(value, id);
+            values.put(id, value);
+        }
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+}
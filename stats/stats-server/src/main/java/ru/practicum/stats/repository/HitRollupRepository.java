@@ -0,0 +1,182 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.ViewStatsDto;
+import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.model.RollupGranularity;
+import ru.practicum.stats.model.RollupRange;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Часовые и суточные агрегаты хитов.
+ * Счетчики пишутся дописыванием частичных строк, которые затем схлопывает {@link #compact(int)},
+ * поэтому параллельные вставки не конкурируют за одну строку.
+ * Множества IP пополняются только новыми адресами; редкие дубли от гонок не влияют на COUNT(DISTINCT ip).
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitRollupRepository {
+
+    private static final String INSERT_COUNT_SQL =
+            "INSERT INTO endpoint_hit_rollups (granularity, app_id, uri_id, bucket_start, hits) " +
+                    "VALUES (:granularity, :appId, :uriId, :bucketStart, :hits)";
+
+    private static final String INSERT_IP_SQL =
+            "INSERT INTO endpoint_hit_rollup_ips (granularity, app_id, uri_id, bucket_start, ip) " +
+                    "SELECT :granularity, :appId, :uriId, :bucketStart, :ip " +
+                    "WHERE NOT EXISTS (SELECT 1 FROM endpoint_hit_rollup_ips " +
+                    "WHERE granularity = :granularity AND bucket_start = :bucketStart " +
+                    "AND uri_id = :uriId AND ip = :ip AND app_id = :appId)";
+
+    private static final String FIND_FRAGMENTED_KEYS_SQL =
+            "SELECT granularity, app_id, uri_id, bucket_start FROM endpoint_hit_rollups " +
+                    "GROUP BY granularity, app_id, uri_id, bucket_start HAVING COUNT(*) > 1 LIMIT :limit";
+
+    private static final String FIND_KEY_ROWS_SQL =
+            "SELECT id, hits FROM endpoint_hit_rollups " +
+                    "WHERE granularity = :granularity AND app_id = :appId AND uri_id = :uriId AND bucket_start = :bucketStart";
+
+    private static final String DELETE_ROWS_SQL = "DELETE FROM endpoint_hit_rollups WHERE id IN (:ids)";
+
+    private static final String DELETE_COUNTS_BEFORE_SQL =
+            "DELETE FROM endpoint_hit_rollups WHERE granularity IN ('HOUR', 'DAY') AND bucket_start < :boundary";
+
+    private static final String DELETE_IPS_BEFORE_SQL =
+            "DELETE FROM endpoint_hit_rollup_ips WHERE granularity IN ('HOUR', 'DAY') AND bucket_start < :boundary";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HitDictionary hitDictionary;
+
+    public void accumulate(List<EndpointHitEntity> hits) {
+        List<SqlParameterSource> counts = new ArrayList<>();
+        List<SqlParameterSource> ips = new ArrayList<>();
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<RollupKey, Long> bucketCounts = new HashMap<>();
+            Set<RollupIp> bucketIps = new LinkedHashSet<>();
+            for (EndpointHitEntity hit : hits) {
+                RollupKey key = RollupKey.of(granularity, hit.getAppId(), hit.getUriId(), hit.getTimestamp());
+                bucketCounts.merge(key, 1L, Long::sum);
+                bucketIps.add(new RollupIp(key, hit.getIp()));
+            }
+
+            bucketCounts.forEach((key, count) -> counts.add(key.toParams().addValue("hits", count)));
+            bucketIps.forEach(rollupIp -> ips.add(rollupIp.getKey().toParams().addValue("ip", rollupIp.getIp())));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_COUNT_SQL, counts.toArray(new SqlParameterSource[0]));
+        jdbcTemplate.batchUpdate(INSERT_IP_SQL, ips.toArray(new SqlParameterSource[0]));
+    }
+
+    public List<ViewStatsDto> getViewStats(RollupRange range, List<Integer> uriIds, boolean unique) {
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String uriFilter = "";
+        if (!uriIds.isEmpty()) {
+            params.addValue("uriIds", uriIds);
+            uriFilter = " AND uri_id IN (:uriIds)";
+        }
+
+        List<String> parts = new ArrayList<>();
+        addRawPart(parts, params, "head", range.getStart(), range.getHoursFrom(), false, unique, uriFilter);
+        addRollupPart(parts, params, "hoursBefore", RollupGranularity.HOUR,
+                range.getHoursFrom(), range.getDaysFrom(), unique, uriFilter);
+        addRollupPart(parts, params, "days", RollupGranularity.DAY,
+                range.getDaysFrom(), range.getDaysTo(), unique, uriFilter);
+        addRollupPart(parts, params, "hoursAfter", RollupGranularity.HOUR,
+                range.getDaysTo(), range.getHoursTo(), unique, uriFilter);
+        addRawPart(parts, params, "tail", range.getHoursTo(), range.getEnd(), true, unique, uriFilter);
+
+        String aggregate = unique ? "COUNT(DISTINCT ip)" : "SUM(hits)";
+        String sql = "SELECT app_id, uri_id, " + aggregate + " AS hits FROM (" +
+                String.join(" UNION ALL ", parts) +
+                ") parts GROUP BY app_id, uri_id ORDER BY hits DESC";
+
+        return jdbcTemplate.query(sql, params, (rs, rowNum) ->
+                hitDictionary.toViewStats(rs.getInt("app_id"), rs.getInt("uri_id"), rs.getLong("hits")));
+    }
+
+    // Схлопывает частичные строки счетчиков. Возвращает число объединенных ключей.
+    public int compact(int maxKeys) {
+        List<RollupKey> keys = jdbcTemplate.query(FIND_FRAGMENTED_KEYS_SQL,
+                new MapSqlParameterSource("limit", maxKeys),
+                (rs, rowNum) -> RollupKey.fromRow(rs));
+
+        for (RollupKey key : keys) {
+            List<Long> ids = new ArrayList<>();
+            long hits = 0;
+            for (Map<String, Object> row : jdbcTemplate.queryForList(FIND_KEY_ROWS_SQL, key.toParams())) {
+                ids.add(((Number) row.get("id")).longValue());
+                hits += ((Number) row.get("hits")).longValue();
+            }
+
+            int deleted = jdbcTemplate.update(DELETE_ROWS_SQL, new MapSqlParameterSource("ids", ids));
+            if (deleted != ids.size()) {
+                // Строки уже схлопнул параллельный компактор - откатываем весь проход
+                throw new IllegalStateException("Rollup rows for %s were compacted concurrently".formatted(key));
+            }
+            jdbcTemplate.update(INSERT_COUNT_SQL, key.toParams().addValue("hits", hits));
+        }
+        return keys.size();
+    }
+
+    // Множества IP - копия сырых адресов, поэтому хранятся не дольше сырых хитов
+    public int deleteIpsBefore(LocalDateTime boundary) {
+        return jdbcTemplate.update(DELETE_IPS_BEFORE_SQL, new MapSqlParameterSource("boundary", boundary));
+    }
+
+    public int deleteCountsBefore(LocalDateTime boundary) {
+        return jdbcTemplate.update(DELETE_COUNTS_BEFORE_SQL, new MapSqlParameterSource("boundary", boundary));
+    }
+
+    private void addRawPart(List<String> parts, MapSqlParameterSource params, String name,
+                            LocalDateTime from, LocalDateTime to, boolean inclusiveEnd,
+                            boolean unique, String uriFilter) {
+        if (from.isAfter(to) || (!inclusiveEnd && from.isEqual(to))) {
+            return;
+        }
+        params.addValue(name + "From", from);
+        params.addValue(name + "To", to);
+
+        String where = " FROM endpoint_hits WHERE hit_timestamp >= :" + name + "From" +
+                " AND hit_timestamp " + (inclusiveEnd ? "<=" : "<") + " :" + name + "To" + uriFilter;
+        parts.add(unique
+                ? "SELECT app_id, uri_id, ip" + where
+                : "SELECT app_id, uri_id, COUNT(*) AS hits" + where + " GROUP BY app_id, uri_id");
+    }
+
+    private void addRollupPart(List<String> parts, MapSqlParameterSource params, String name,
+                               RollupGranularity granularity, LocalDateTime from, LocalDateTime to,
+                               boolean unique, String uriFilter) {
+        if (!from.isBefore(to)) {
+            return;
+        }
+        params.addValue(name + "Granularity", granularity.name());
+        params.addValue(name + "From", from);
+        params.addValue(name + "To", to);
+
+        String where = " WHERE granularity = :" + name + "Granularity" +
+                " AND bucket_start >= :" + name + "From" +
+                " AND bucket_start < :" + name + "To" + uriFilter;
+        parts.add(unique
+                ? "SELECT app_id, uri_id, ip FROM endpoint_hit_rollup_ips" + where
+                : "SELECT app_id, uri_id, hits FROM endpoint_hit_rollups" + where);
+    }
+
+    @Value
+    private static class RollupIp {
+        RollupKey key;
+        byte[] ip;
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.stats.repository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+import ru.practicum.stats.ViewStatsDto;
+import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.model.HyperLogLog;
+import ru.practicum.stats.model.RollupGranularity;
+import ru.practicum.stats.model.RollupRange;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HyperLogLog-скетчи уникальных IP по тем же часовым и суточным бакетам, что и {@link HitRollupRepository}.
+ * Как и счетчики, скетчи дописываются частичными строками и схлопываются компактором.
+ */
+@Repository
+@RequiredArgsConstructor
+public class HitSketchRepository {
+
+    private static final String INSERT_SKETCH_SQL =
+            "INSERT INTO endpoint_hit_sketches (granularity, app_id, uri_id, bucket_start, sketch) " +
+                    "VALUES (:granularity, :appId, :uriId, :bucketStart, :sketch)";
+
+    private static final String FIND_FRAGMENTED_KEYS_SQL =
+            "SELECT granularity, app_id, uri_id, bucket_start FROM endpoint_hit_sketches " +
+                    "GROUP BY granularity, app_id, uri_id, bucket_start HAVING COUNT(*) > 1 LIMIT :limit";
+
+    private static final String FIND_KEY_ROWS_SQL =
+            "SELECT id, sketch FROM endpoint_hit_sketches " +
+                    "WHERE granularity = :granularity AND app_id = :appId AND uri_id = :uriId AND bucket_start = :bucketStart";
+
+    private static final String DELETE_ROWS_SQL = "DELETE FROM endpoint_hit_sketches WHERE id IN (:ids)";
+
+    private static final String DELETE_BEFORE_SQL =
+            "DELETE FROM endpoint_hit_sketches WHERE granularity IN ('HOUR', 'DAY') AND bucket_start < :boundary";
+
+    private static final String FIND_SKETCHES_SQL =
+            "SELECT app_id, uri_id, sketch FROM endpoint_hit_sketches WHERE (" +
+                    "(granularity = 'HOUR' AND bucket_start >= :hoursFrom AND bucket_start < :daysFrom) " +
+                    "OR (granularity = 'DAY' AND bucket_start >= :daysFrom AND bucket_start < :daysTo) " +
+                    "OR (granularity = 'HOUR' AND bucket_start >= :daysTo AND bucket_start < :hoursTo))";
+
+    private static final String FIND_EDGE_IPS_SQL =
+            "SELECT DISTINCT app_id, uri_id, ip FROM endpoint_hits WHERE (" +
+                    "(hit_timestamp >= :start AND hit_timestamp < :hoursFrom) " +
+                    "OR (hit_timestamp >= :hoursTo AND hit_timestamp <= :end))";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final HitDictionary hitDictionary;
+
+    public void accumulate(List<EndpointHitEntity> hits) {
+        List<SqlParameterSource> rows = new ArrayList<>();
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            Map<RollupKey, HyperLogLog> sketches = new HashMap<>();
+            for (EndpointHitEntity hit : hits) {
+                RollupKey key = RollupKey.of(granularity, hit.getAppId(), hit.getUriId(), hit.getTimestamp());
+                sketches.computeIfAbsent(key, k -> new HyperLogLog()).add(hit.getIp());
+            }
+            sketches.forEach((key, sketch) -> rows.add(key.toParams().addValue("sketch", sketch.toBytes())));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SKETCH_SQL, rows.toArray(new SqlParameterSource[0]));
+    }
+
+    // Объединяет скетчи бакетов из диапазона и IP из неполных крайних часов
+    public List<ViewStatsDto> getViewStats(RollupRange range, List<Integer> uriIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("start", range.getStart())
+                .addValue("hoursFrom", range.getHoursFrom())
+                .addValue("daysFrom", range.getDaysFrom())
+                .addValue("daysTo", range.getDaysTo())
+                .addValue("hoursTo", range.getHoursTo())
+                .addValue("end", range.getEnd());
+        String uriFilter = "";
+        if (!uriIds.isEmpty()) {
+            params.addValue("uriIds", uriIds);
+            uriFilter = " AND uri_id IN (:uriIds)";
+        }
+
+        Map<AppUri, HyperLogLog> merged = new HashMap<>();
+        jdbcTemplate.query(FIND_SKETCHES_SQL + uriFilter, params, rs -> {
+            merged.computeIfAbsent(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")), k -> new HyperLogLog())
+                    .merge(HyperLogLog.fromBytes(rs.getBytes("sketch")));
+        });
+        jdbcTemplate.query(FIND_EDGE_IPS_SQL + uriFilter, params, rs -> {
+            merged.computeIfAbsent(new AppUri(rs.getInt("app_id"), rs.getInt("uri_id")), k -> new HyperLogLog())
+                    .add(rs.getBytes("ip"));
+        });
+
+        return merged.entrySet().stream()
+                .map(entry -> hitDictionary.toViewStats(entry.getKey().getAppId(), entry.getKey().getUriId(),
+                        entry.getValue().estimate()))
+                .sorted(Comparator.comparing(ViewStatsDto::getHits).reversed())
+                .toList();
+    }
+
+    public int compact(int maxKeys) {
+        List<RollupKey> keys = jdbcTemplate.query(FIND_FRAGMENTED_KEYS_SQL,
+                new MapSqlParameterSource("limit", maxKeys),
+                (rs, rowNum) -> RollupKey.fromRow(rs));
+
+        for (RollupKey key : keys) {
+            List<Long> ids = new ArrayList<>();
+            HyperLogLog sketch = new HyperLogLog();
+            jdbcTemplate.query(FIND_KEY_ROWS_SQL, key.toParams(), rs -> {
+                ids.add(rs.getLong("id"));
+                sketch.merge(HyperLogLog.fromBytes(rs.getBytes("sketch")));
+            });
+
+            int deleted = jdbcTemplate.update(DELETE_ROWS_SQL, new MapSqlParameterSource("ids", ids));
+            if (deleted != ids.size()) {
+                throw new IllegalStateException("Sketch rows for %s were compacted concurrently".formatted(key));
+            }
+            jdbcTemplate.update(INSERT_SKETCH_SQL, key.toParams().addValue("sketch", sketch.toBytes()));
+        }
+        return keys.size();
+    }
+
+    public int deleteBefore(LocalDateTime boundary) {
+        return jdbcTemplate.update(DELETE_BEFORE_SQL, new MapSqlParameterSource("boundary", boundary));
+    }
+
+    @Value
+    private static class AppUri {
+        Integer appId;
+        Integer uriId;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.stats.repository;
+
+import lombok.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import ru.practicum.stats.model.RollupGranularity;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+@Value
+class RollupKey {
+    RollupGranularity granularity;
+    Integer appId;
+    Integer uriId;
+    LocalDateTime bucketStart;
+
+    static RollupKey of(RollupGranularity granularity, Integer appId, Integer uriId, LocalDateTime timestamp) {
+        return new RollupKey(granularity, appId, uriId, granularity.bucketOf(timestamp));
+    }
+
+    static RollupKey fromRow(ResultSet rs) throws SQLException {
+        return new RollupKey(
+                RollupGranularity.valueOf(rs.getString("granularity")),
+                rs.getInt("app_id"),
+                rs.getInt("uri_id"),
+                rs.getObject("bucket_start", LocalDateTime.class));
+    }
+
+    MapSqlParameterSource toParams() {
+        return new MapSqlParameterSource()
+                .addValue("granularity", granularity.name())
+                .addValue("appId", appId)
+                .addValue("uriId", uriId)
+                .addValue("bucketStart", bucketStart);
+    }
+}
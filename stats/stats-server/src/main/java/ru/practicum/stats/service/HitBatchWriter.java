@@ -0,0 +1,47 @@
+package ru.practicum.stats.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.EndpointHitDto;
+import ru.practicum.stats.mapper.EndpointHitMapper;
+import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
+import ru.practicum.stats.repository.StatsServerRepository;
+
+import java.util.List;
+
+/**
+ * Единственный путь записи хитов: сырые строки пачкой, затем по одной строке агрегатов и скетчей
+ * на каждый ключ (гранулярность, app, uri, бакет) пачки.
+ */
+@Component
+@RequiredArgsConstructor
+public class HitBatchWriter {
+
+    private final StatsServerRepository statsServerRepository;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final EndpointHitMapper endpointHitMapper;
+    private final HotWindowViewCounter hotWindowViewCounter;
+    private final TransactionTemplate transactionTemplate;
+
+    // id app и uri определяются до транзакции записи: новое значение словаря вставляется в собственной транзакции,
+    // и писатель не должен держать второе соединение из пула, пока ждет его
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int write(List<EndpointHitDto> hits) {
+        List<EndpointHitEntity> entities = hits.stream()
+                .map(endpointHitMapper::toEntity)
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            statsServerRepository.saveAllInBatch(entities);
+            hitRollupRepository.accumulate(entities);
+            hitSketchRepository.accumulate(entities);
+            hotWindowViewCounter.recordAfterCommit(hits);
+        });
+        return entities.size();
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.stats.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+/**
+ * Обслуживает суточные секции endpoint_hits в PostgreSQL: создает секции на несколько дней вперед
+ * и удаляет (или отсоединяет в архив) секции старше срока хранения.
+ * Вместе с секциями удаляются множества IP endpoint_hit_rollup_ips за те же дни - это копия сырых адресов.
+ * Счетчики endpoint_hit_rollups и скетчи endpoint_hit_sketches хранятся stats.rollup.retention-days дней,
+ * но не меньше, чем сырые хиты: иначе полные сутки в диапазоне запроса считались бы по пустым агрегатам.
+ * Хиты, попавшие в DEFAULT-секцию (дни без секции), переносятся в суточную секцию при ее создании,
+ * после чего на них действует обычный срок хранения.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(prefix = "stats.partitioning", name = "enabled", havingValue = "true")
+public class HitPartitionManager {
+
+    private static final String PARTITION_PREFIX = "endpoint_hits_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final String FIND_PARTITIONS_SQL =
+            "SELECT c.relname FROM pg_inherits i " +
+                    "JOIN pg_class c ON c.oid = i.inhrelid " +
+                    "JOIN pg_class p ON p.oid = i.inhparent " +
+                    "WHERE p.relname = 'endpoint_hits'";
+
+    private static final String FIND_DEFAULT_DAYS_SQL =
+            "SELECT DISTINCT CAST(hit_timestamp AS DATE) FROM endpoint_hits_default WHERE hit_timestamp < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final Counter failures;
+
+    @Value("${stats.partitioning.days-ahead:7}")
+    private int daysAhead;
+
+    // 0 - хранить сырые хиты бессрочно
+    @Value("${stats.partitioning.retention-days:0}")
+    private int retentionDays;
+
+    // true - отсоединять старые секции как архивные таблицы вместо удаления
+    @Value("${stats.partitioning.archive:false}")
+    private boolean archive;
+
+    // 0 - хранить агрегаты бессрочно
+    @Value("${stats.rollup.retention-days:0}")
+    private int rollupRetentionDays;
+
+    public HitPartitionManager(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               HitRollupRepository hitRollupRepository,
+                               HitSketchRepository hitSketchRepository,
+                               MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.hitRollupRepository = hitRollupRepository;
+        this.hitSketchRepository = hitSketchRepository;
+        this.failures = Counter.builder("stats.partitions.failed")
+                .description("Failed endpoint_hits partition creations")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${stats.partitioning.cron:0 0 1 * * *}")
+    public void maintain() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= daysAhead; i++) {
+            createPartition(today.plusDays(i));
+        }
+        // Прошедшие дни без секции (хиты с давним timestamp или до первого запуска)
+        jdbcTemplate.queryForList(FIND_DEFAULT_DAYS_SQL, LocalDate.class, today.atStartOfDay())
+                .forEach(this::createPartition);
+        if (retentionDays > 0) {
+            LocalDate boundary = today.minusDays(retentionDays);
+            dropPartitionsBefore(boundary);
+            int ips = hitRollupRepository.deleteIpsBefore(boundary.atStartOfDay());
+            log.info("Stats-server. rollup ips before {} deleted: {}", boundary, ips);
+        }
+        // Пока сырые хиты хранятся бессрочно, агрегаты тоже нужны за весь период
+        if (retentionDays > 0 && rollupRetentionDays > 0) {
+            LocalDate boundary = today.minusDays(Math.max(rollupRetentionDays, retentionDays));
+            int counts = hitRollupRepository.deleteCountsBefore(boundary.atStartOfDay());
+            int sketches = hitSketchRepository.deleteBefore(boundary.atStartOfDay());
+            log.info("Stats-server. rollups before {} deleted: {} counts, {} sketches", boundary, counts, sketches);
+        }
+    }
+
+    // Секция создается отдельной таблицей, в нее переносятся хиты этого дня из DEFAULT, затем она присоединяется.
+    // Без переноса CREATE ... PARTITION OF падает, если в DEFAULT уже есть строки за этот день
+    private void createPartition(LocalDate day) {
+        String partition = partitionName(day);
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                partition))) {
+            return;
+        }
+        try {
+            Integer moved = transactionTemplate.execute(tx -> {
+                // Новые хиты за этот день ждут окончания переноса, а не попадают в DEFAULT после DELETE
+                jdbcTemplate.execute("LOCK TABLE endpoint_hits_default IN SHARE ROW EXCLUSIVE MODE");
+                jdbcTemplate.execute("CREATE TABLE %s (LIKE endpoint_hits INCLUDING DEFAULTS)".formatted(partition));
+                int rows = jdbcTemplate.update(("WITH moved AS (DELETE FROM endpoint_hits_default " +
+                                "WHERE hit_timestamp >= ? AND hit_timestamp < ? RETURNING *) " +
+                                "INSERT INTO %s SELECT * FROM moved").formatted(partition),
+                        day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+                jdbcTemplate.execute("ALTER TABLE endpoint_hits ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+                        .formatted(partition, day, day.plusDays(1)));
+                return rows;
+            });
+            if (moved != null && moved > 0) {
+                log.info("Stats-server. partition {} created, {} hits moved from default", partition, moved);
+            }
+        } catch (DataAccessException e) {
+            failures.increment();
+            log.error("Stats-server. createPartition failed for {}, hits stay in default partition", day, e);
+        }
+    }
+
+    private void dropPartitionsBefore(LocalDate boundary) {
+        List<String> partitions = jdbcTemplate.queryForList(FIND_PARTITIONS_SQL, String.class);
+        for (String partition : partitions) {
+            LocalDate day = parseDay(partition);
+            if (day == null || !day.isBefore(boundary)) {
+                continue;
+            }
+            if (archive) {
+                jdbcTemplate.execute("ALTER TABLE endpoint_hits DETACH PARTITION " + partition);
+                log.info("Stats-server. partition {} detached to archive", partition);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition);
+                log.info("Stats-server. partition {} dropped", partition);
+            }
+        }
+    }
+
+    private String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+    }
+
+    private LocalDate parseDay(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
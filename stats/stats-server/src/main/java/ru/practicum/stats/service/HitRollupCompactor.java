@@ -0,0 +1,31 @@
+package ru.practicum.stats.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HitRollupCompactor {
+
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+
+    @Value("${stats.rollup.compaction-batch:1000}")
+    private int compactionBatch;
+
+    @Scheduled(fixedDelayString = "${stats.rollup.compaction-interval:PT1M}")
+    @Transactional
+    public void compact() {
+        int compacted = hitRollupRepository.compact(compactionBatch) + hitSketchRepository.compact(compactionBatch);
+        if (compacted > 0) {
+            log.info("Stats-server. compact rollups success: merged {} buckets", compacted);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package ru.practicum.stats.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.stats.EndpointHitDto;
+import ru.practicum.stats.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Счетчики просмотров за последние несколько минут в памяти.
+ * Для каждой пары (app, uri) хранится кольцо поминутных бакетов: число хитов по секундам
+ * и битовая маска секунд для каждого IP, поэтому и обычный, и уникальный подсчет точны до секунды.
+ * Доступ к кольцам разделен между полосами блокировок.
+ * Отвечать из памяти корректно только при одном экземпляре stats-server: хиты других экземпляров сюда не попадают.
+ */
+@Component
+public class HotWindowViewCounter {
+
+    private static final int SECONDS_PER_MINUTE = 60;
+
+    private final boolean enabled;
+    private final int windowMinutes;
+    private final ReentrantLock[] stripes;
+    private final Map<AppUri, MinuteBucket[]> windows = new ConcurrentHashMap<>();
+    private final long startedAtSecond;
+
+    public HotWindowViewCounter(@Value("${stats.hot-window.enabled:false}") boolean enabled,
+                                @Value("${stats.hot-window.minutes:15}") int windowMinutes,
+                                @Value("${stats.hot-window.stripes:64}") int stripes) {
+        this.enabled = enabled;
+        this.windowMinutes = windowMinutes;
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        // Хиты, сохраненные до старта, в памяти отсутствуют
+        this.startedAtSecond = nowSecond() + 1;
+    }
+
+    // Учитывает хиты только после фиксации транзакции, чтобы память не опережала БД
+    public void recordAfterCommit(List<EndpointHitDto> hits) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    record(hits);
+                }
+            });
+        } else {
+            record(hits);
+        }
+    }
+
+    public Optional<List<ViewStatsDto>> query(LocalDateTime start, LocalDateTime end, List<String> uris, boolean unique) {
+        long startSecond = toSecond(start);
+        long endSecond = toSecond(end);
+        // Самая старая минута кольца может быть перезаписана во время чтения, поэтому она не используется
+        long oldestSafeSecond = (nowSecond() / SECONDS_PER_MINUTE - windowMinutes + 2) * SECONDS_PER_MINUTE;
+        if (!enabled || startSecond < Math.max(oldestSafeSecond, startedAtSecond)) {
+            return Optional.empty();
+        }
+
+        Set<String> uriFilter = uris == null || uris.isEmpty() ? null : new HashSet<>(uris);
+        List<ViewStatsDto> result = new ArrayList<>();
+        for (Map.Entry<AppUri, MinuteBucket[]> entry : windows.entrySet()) {
+            AppUri key = entry.getKey();
+            if (uriFilter != null && !uriFilter.contains(key.getUri())) {
+                continue;
+            }
+            long hits = count(key, entry.getValue(), startSecond, endSecond, unique);
+            if (hits > 0) {
+                result.add(new ViewStatsDto(key.getApp(), key.getUri(), hits));
+            }
+        }
+        result.sort(Comparator.comparing(ViewStatsDto::getHits).reversed());
+        return Optional.of(result);
+    }
+
+    // Кольцо удаляется под блокировкой своей полосы, под ней же record находит или создает кольцо,
+    // поэтому хит не может попасть в уже удаленное кольцо
+    @Scheduled(fixedDelayString = "${stats.hot-window.cleanup-interval:PT1M}")
+    public void evictIdle() {
+        long oldestMinute = nowSecond() / SECONDS_PER_MINUTE - windowMinutes + 1;
+        for (Map.Entry<AppUri, MinuteBucket[]> entry : windows.entrySet()) {
+            ReentrantLock lock = lockFor(entry.getKey());
+            lock.lock();
+            try {
+                if (isIdle(entry.getValue(), oldestMinute)) {
+                    windows.remove(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private boolean isIdle(MinuteBucket[] ring, long oldestMinute) {
+        for (MinuteBucket bucket : ring) {
+            if (bucket != null && bucket.minute >= oldestMinute) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void record(List<EndpointHitDto> hits) {
+        long currentMinute = nowSecond() / SECONDS_PER_MINUTE;
+        for (EndpointHitDto hit : hits) {
+            if (hit.getTimestamp() == null) {
+                continue;
+            }
+            long second = toSecond(hit.getTimestamp());
+            long minute = second / SECONDS_PER_MINUTE;
+            if (minute <= currentMinute - windowMinutes || minute > currentMinute) {
+                continue;
+            }
+
+            AppUri key = new AppUri(hit.getApp(), hit.getUri());
+            ReentrantLock lock = lockFor(key);
+            lock.lock();
+            try {
+                MinuteBucket[] ring = windows.computeIfAbsent(key, k -> new MinuteBucket[windowMinutes]);
+                int index = (int) (minute % windowMinutes);
+                MinuteBucket bucket = ring[index];
+                if (bucket == null || bucket.minute != minute) {
+                    bucket = new MinuteBucket(minute);
+                    ring[index] = bucket;
+                }
+                bucket.add((int) (second % SECONDS_PER_MINUTE), hit.getIp());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private long count(AppUri key, MinuteBucket[] ring, long startSecond, long endSecond, boolean unique) {
+        long startMinute = startSecond / SECONDS_PER_MINUTE;
+        long endMinute = endSecond / SECONDS_PER_MINUTE;
+        long hits = 0;
+        Set<String> ips = unique ? new HashSet<>() : null;
+
+        ReentrantLock lock = lockFor(key);
+        lock.lock();
+        try {
+            for (MinuteBucket bucket : ring) {
+                if (bucket == null || bucket.minute < startMinute || bucket.minute > endMinute) {
+                    continue;
+                }
+                int fromSecond = bucket.minute == startMinute ? (int) (startSecond % SECONDS_PER_MINUTE) : 0;
+                int toSecond = bucket.minute == endMinute
+                        ? (int) (endSecond % SECONDS_PER_MINUTE) : SECONDS_PER_MINUTE - 1;
+                if (unique) {
+                    bucket.collectIps(fromSecond, toSecond, ips);
+                } else {
+                    hits += bucket.count(fromSecond, toSecond);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        return unique ? ips.size() : hits;
+    }
+
+    private ReentrantLock lockFor(AppUri key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private long nowSecond() {
+        return toSecond(LocalDateTime.now());
+    }
+
+    private static long toSecond(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    @lombok.Value
+    private static class AppUri {
+        String app;
+        String uri;
+    }
+
+    private static final class MinuteBucket {
+        private final long minute;
+        private final int[] hitsBySecond = new int[SECONDS_PER_MINUTE];
+        // Бит i выставлен, если с этого IP был хит в секунду i
+        private final Map<String, Long> secondsByIp = new HashMap<>();
+
+        private MinuteBucket(long minute) {
+            this.minute = minute;
+        }
+
+        private void add(int second, String ip) {
+            hitsBySecond[second]++;
+            secondsByIp.merge(ip, 1L << second, (a, b) -> a | b);
+        }
+
+        private long count(int fromSecond, int toSecond) {
+            long hits = 0;
+            for (int i = fromSecond; i <= toSecond; i++) {
+                hits += hitsBySecond[i];
+            }
+            return hits;
+        }
+
+        private void collectIps(int fromSecond, int toSecond, Set<String> ips) {
+            long mask = (-1L >>> (Long.SIZE - 1 - toSecond)) & (-1L << fromSecond);
+            secondsByIp.forEach((ip, seconds) -> {
+                if ((seconds & mask) != 0) {
+                    ips.add(ip);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.stats.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.stats.EndpointHitDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Групповая запись одиночных хитов POST /hit. Хиты, пришедшие, пока пишется предыдущая пачка,
+ * записываются следующей одной транзакцией через {@link HitBatchWriter}, поэтому агрегаты и скетчи
+ * обновляются один раз на ключ пачки, а не на каждый хит. Вызывающий поток ждет фиксации своей пачки:
+ * ответ на POST /hit, как и раньше, означает, что хит сохранен.
+ * Если пачка не записалась, ее хиты пишутся по одному, чтобы ошибка одного хита не отклоняла остальные.
+ */
+@Component
+@Slf4j
+public class SingleHitBatcher implements DisposableBean {
+
+    private final HitBatchWriter hitBatchWriter;
+    private final int maxBatchSize;
+    private final Duration shutdownTimeout;
+    private final BlockingQueue<PendingHit> queue;
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public SingleHitBatcher(HitBatchWriter hitBatchWriter,
+                            @Value("${stats.ingest.max-batch-size:500}") int maxBatchSize,
+                            @Value("${stats.ingest.queue-capacity:10000}") int queueCapacity,
+                            @Value("${stats.ingest.shutdown-timeout:PT5S}") Duration shutdownTimeout) {
+        this.hitBatchWriter = hitBatchWriter;
+        this.maxBatchSize = maxBatchSize;
+        this.shutdownTimeout = shutdownTimeout;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        this.flusher = new Thread(this::flushLoop, "stats-hit-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void write(EndpointHitDto hit) {
+        PendingHit pending = new PendingHit(hit, new CompletableFuture<>());
+        // Очередь переполнена или сервис останавливается - хит пишется сразу отдельной транзакцией
+        if (!running || !queue.offer(pending)) {
+            hitBatchWriter.write(List.of(hit));
+            return;
+        }
+        try {
+            pending.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        flusher.join(shutdownTimeout.toMillis());
+    }
+
+    private void flushLoop() {
+        List<PendingHit> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingHit first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingHit> batch) {
+        try {
+            hitBatchWriter.write(batch.stream().map(PendingHit::hit).toList());
+            batch.forEach(pending -> pending.result().complete(null));
+        } catch (RuntimeException e) {
+            log.warn("Stats-server. group commit of {} hits failed, writing one by one: {}", batch.size(), e.getMessage());
+            for (PendingHit pending : batch) {
+                try {
+                    hitBatchWriter.write(List.of(pending.hit()));
+                    pending.result().complete(null);
+                } catch (RuntimeException single) {
+                    pending.result().completeExceptionally(single);
+                }
+            }
+        }
+    }
+
+    private record PendingHit(EndpointHitDto hit, CompletableFuture<Void> result) {
+    }
+}
@@ -11,6 +11,9 @@ public interface StatsService {
 
     boolean addStat(EndpointHitDto endpointHitDto);
 
-    List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) throws StartDateIsAfterEndDateException;
+    boolean addStats(List<EndpointHitDto> endpointHitDtos);
+
+    List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                               Boolean approximate) throws StartDateIsAfterEndDateException;
 
 }
@@ -3,12 +3,15 @@ package ru.practicum.stats.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.stats.EndpointHitDto;
 import ru.practicum.stats.exception.StartDateIsAfterEndDateException;
-import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.model.RollupRange;
 import ru.practicum.stats.ViewStatsDto;
-import ru.practicum.stats.mapper.EndpointHitMapper;
+import ru.practicum.stats.repository.HitDictionary;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
 import ru.practicum.stats.repository.StatsServerRepository;
 
 import java.time.LocalDateTime;
@@ -20,32 +23,70 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class StatsServiceImpl implements StatsService {
     private final StatsServerRepository statsServerRepository;
-    private final EndpointHitMapper endpointHitMapper;
+    private final HitRollupRepository hitRollupRepository;
+    private final HitSketchRepository hitSketchRepository;
+    private final HitDictionary hitDictionary;
+    private final HotWindowViewCounter hotWindowViewCounter;
+    private final HitBatchWriter hitBatchWriter;
+    private final SingleHitBatcher singleHitBatcher;
 
+    // Одиночный хит пишется вместе с параллельными хитами одной пачкой, см. SingleHitBatcher
     @Override
-    @Transactional
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean addStat(EndpointHitDto endpointHitDto) {
         log.info("Stats-server. addStat input: uri = {}, app={} from ip {}",
                 endpointHitDto.getUri(),
                 endpointHitDto.getApp(),
                 endpointHitDto.getIp());
 
-        EndpointHitEntity savedEntity = statsServerRepository.save(endpointHitMapper.toEntity(endpointHitDto));
+        singleHitBatcher.write(endpointHitDto);
 
-        log.info("Stats-server. addStat success: id = {}", savedEntity.getId());
+        log.info("Stats-server. addStat success: uri = {}", endpointHitDto.getUri());
 
         return true;
     }
 
     @Override
-    public List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique) throws StartDateIsAfterEndDateException {
-        log.info("Stats-server. getStat input: uris = {}, from {} to {}, unique = {}", uris.toString(), start, end, unique);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean addStats(List<EndpointHitDto> endpointHitDtos) {
+        log.info("Stats-server. addStats input: {} hits", endpointHitDtos.size());
+
+        int saved = hitBatchWriter.write(endpointHitDtos);
+
+        log.info("Stats-server. addStats success: saved {}", saved);
+
+        return true;
+    }
+
+    @Override
+    public List<ViewStatsDto> getStat(LocalDateTime start, LocalDateTime end, List<String> uris, Boolean unique,
+                                      Boolean approximate) throws StartDateIsAfterEndDateException {
+        log.info("Stats-server. getStat input: uris = {}, from {} to {}, unique = {}, approximate = {}",
+                uris.toString(), start, end, unique, approximate);
 
         if (start.isAfter(end)) {
             throw new StartDateIsAfterEndDateException("Start date " + start + " cannot be after end date " + end);
         }
 
-        List<ViewStatsDto> list = statsServerRepository.getViewStats(uris, start, end, unique);
+        // Запросы за последние минуты отдаем из памяти без обращения к БД
+        List<ViewStatsDto> hot = hotWindowViewCounter.query(start, end, uris, unique).orElse(null);
+        if (hot != null) {
+            log.info("Stats-server. getStat success: found {} in hot window", hot.size());
+            return hot;
+        }
+
+        List<Integer> uriIds = hitDictionary.findUriIds(uris);
+        if (!uris.isEmpty() && uriIds.isEmpty()) {
+            log.info("Stats-server. getStat success: no hits for unknown uris");
+            return List.of();
+        }
+
+        // Полные часы и сутки берем из агрегатов, сырые хиты - только для неполных крайних часов
+        List<ViewStatsDto> list = RollupRange.of(start, end)
+                .map(range -> unique && approximate
+                        ? hitSketchRepository.getViewStats(range, uriIds)
+                        : hitRollupRepository.getViewStats(range, uriIds, unique))
+                .orElseGet(() -> statsServerRepository.getViewStats(uriIds, start, end, unique));
 
         log.info("Stats-server. getStat success: found {}", list.size());
 
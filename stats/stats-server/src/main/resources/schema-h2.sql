@@ -0,0 +1,12 @@
+DROP TABLE IF EXISTS endpoint_hits CASCADE;
+
+CREATE TABLE IF NOT EXISTS endpoint_hits
+(
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    app_id        INTEGER                                 NOT NULL,
+    uri_id        INTEGER                                 NOT NULL,
+    ip            BYTEA                                   NOT NULL,
+    hit_timestamp TIMESTAMP WITHOUT TIME ZONE             NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri_id_timestamp ON endpoint_hits (uri_id, hit_timestamp);
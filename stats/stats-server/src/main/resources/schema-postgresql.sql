@@ -0,0 +1,19 @@
+DROP TABLE IF EXISTS endpoint_hits CASCADE;
+DROP SEQUENCE IF EXISTS endpoint_hits_id_seq;
+
+CREATE SEQUENCE IF NOT EXISTS endpoint_hits_id_seq;
+
+-- Суточные секции создает и удаляет HitPartitionManager, в DEFAULT попадают хиты вне созданных секций
+CREATE TABLE IF NOT EXISTS endpoint_hits
+(
+    id            BIGINT                      NOT NULL DEFAULT nextval('endpoint_hits_id_seq'),
+    app_id        INTEGER                     NOT NULL,
+    uri_id        INTEGER                     NOT NULL,
+    ip            BYTEA                       NOT NULL,
+    hit_timestamp TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    PRIMARY KEY (id, hit_timestamp)
+) PARTITION BY RANGE (hit_timestamp);
+
+CREATE TABLE IF NOT EXISTS endpoint_hits_default PARTITION OF endpoint_hits DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri_id_timestamp ON endpoint_hits (uri_id, hit_timestamp);
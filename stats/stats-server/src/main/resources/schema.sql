@@ -1,15 +1,56 @@
-DROP TABLE IF EXISTS endpoint_hits CASCADE;
+DROP TABLE IF EXISTS stats_apps CASCADE;
 
-CREATE TABLE IF NOT EXISTS endpoint_hits
+CREATE TABLE IF NOT EXISTS stats_apps
 (
-    id            BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL,
-    app           VARCHAR(255)                            NOT NULL,
-    uri           VARCHAR(512)                            NOT NULL,
-    ip            VARCHAR(45)                             NOT NULL,
-    hit_timestamp TIMESTAMP WITHOUT TIME ZONE             NOT NULL
+    id   INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    name VARCHAR(255)                             NOT NULL UNIQUE
 );
 
-CREATE INDEX IF NOT EXISTS idx_endpoint_hits_ip ON endpoint_hits (ip);
-CREATE INDEX IF NOT EXISTS idx_endpoint_hits_timestamp ON endpoint_hits (hit_timestamp);
-CREATE INDEX IF NOT EXISTS idx_endpoint_hits_app ON endpoint_hits (app);
-CREATE INDEX IF NOT EXISTS idx_endpoint_hits_uri ON endpoint_hits(uri);
\ No newline at end of file
+DROP TABLE IF EXISTS stats_uris CASCADE;
+
+CREATE TABLE IF NOT EXISTS stats_uris
+(
+    id  INTEGER GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    uri VARCHAR(512)                             NOT NULL UNIQUE
+);
+
+DROP TABLE IF EXISTS endpoint_hit_rollups CASCADE;
+
+CREATE TABLE IF NOT EXISTS endpoint_hit_rollups
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    granularity  VARCHAR(8)                              NOT NULL,
+    app_id       INTEGER                                 NOT NULL,
+    uri_id       INTEGER                                 NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    hits         BIGINT                                  NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hit_rollups_bucket ON endpoint_hit_rollups (granularity, bucket_start, uri_id);
+
+DROP TABLE IF EXISTS endpoint_hit_rollup_ips CASCADE;
+
+CREATE TABLE IF NOT EXISTS endpoint_hit_rollup_ips
+(
+    granularity  VARCHAR(8)                  NOT NULL,
+    app_id       INTEGER                     NOT NULL,
+    uri_id       INTEGER                     NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    ip           BYTEA                       NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hit_rollup_ips_bucket ON endpoint_hit_rollup_ips (granularity, bucket_start, uri_id, ip);
+
+DROP TABLE IF EXISTS endpoint_hit_sketches CASCADE;
+
+CREATE TABLE IF NOT EXISTS endpoint_hit_sketches
+(
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY NOT NULL PRIMARY KEY,
+    granularity  VARCHAR(8)                              NOT NULL,
+    app_id       INTEGER                                 NOT NULL,
+    uri_id       INTEGER                                 NOT NULL,
+    bucket_start TIMESTAMP WITHOUT TIME ZONE             NOT NULL,
+    sketch       BYTEA                                   NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_endpoint_hit_sketches_bucket ON endpoint_hit_sketches (granularity, bucket_start, uri_id);
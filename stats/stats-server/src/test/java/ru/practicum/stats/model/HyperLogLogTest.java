@@ -0,0 +1,55 @@
+package ru.practicum.stats.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HyperLogLogTest {
+
+    @Test
+    void smallSketchIsStoredSparse() {
+        HyperLogLog sketch = sketchOf(0, 1);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(3);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(1);
+    }
+
+    @Test
+    void largeSketchSwitchesToDense() {
+        HyperLogLog sketch = sketchOf(0, 10_000);
+
+        byte[] bytes = sketch.toBytes();
+
+        assertThat(bytes).hasSize(HyperLogLog.REGISTERS);
+        assertThat(HyperLogLog.fromBytes(bytes).estimate()).isEqualTo(sketch.estimate());
+    }
+
+    @Test
+    void sparseAndDenseSketchesMerge() {
+        HyperLogLog sparse = HyperLogLog.fromBytes(sketchOf(0, 100).toBytes());
+        HyperLogLog dense = HyperLogLog.fromBytes(sketchOf(100, 10_000).toBytes());
+
+        long estimate = dense.merge(sparse).estimate();
+
+        assertThat(estimate).isEqualTo(sketchOf(0, 10_000).estimate());
+    }
+
+    @Test
+    void truncatedSketchIsRejected() {
+        assertThatThrownBy(() -> HyperLogLog.fromBytes(new byte[4]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(("10.0.0." + i).getBytes(StandardCharsets.UTF_8));
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.stats.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.EndpointHitDto;
+import ru.practicum.stats.mapper.EndpointHitMapper;
+import ru.practicum.stats.model.EndpointHitEntity;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
+import ru.practicum.stats.repository.StatsServerRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.when;
+
+class HitBatchWriterTest {
+
+    private final StatsServerRepository statsServerRepository = mock(StatsServerRepository.class);
+    private final EndpointHitMapper endpointHitMapper = mock(EndpointHitMapper.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final HitBatchWriter writer = new HitBatchWriter(statsServerRepository,
+            mock(HitRollupRepository.class),
+            mock(HitSketchRepository.class),
+            endpointHitMapper,
+            mock(HotWindowViewCounter.class),
+            new TransactionTemplate(transactionManager));
+
+    // Словари (и вставка новых app и uri) проходят до того, как транзакция записи займет соединение
+    @Test
+    void hitsAreMappedBeforeWriteTransaction() {
+        EndpointHitDto hit = EndpointHitDto.builder()
+                .app("main-service")
+                .uri("/events/1")
+                .ip("127.0.0.1")
+                .timestamp(LocalDateTime.now())
+                .build();
+        when(endpointHitMapper.toEntity(any())).thenReturn(new EndpointHitEntity());
+
+        int written = writer.write(List.of(hit, hit));
+
+        assertThat(written).isEqualTo(2);
+        InOrder order = inOrder(endpointHitMapper, transactionManager, statsServerRepository);
+        order.verify(endpointHitMapper, times(2)).toEntity(hit);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(statsServerRepository).saveAllInBatch(any());
+        order.verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.practicum.stats.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.stats.repository.HitRollupRepository;
+import ru.practicum.stats.repository.HitSketchRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Проверка на живом PostgreSQL: схема endpoint_hits пересоздается, поэтому нужна отдельная пустая база.
+ * Запуск: mvn test -pl stats/stats-server -Dstats.test.postgres.url=jdbc:postgresql://localhost:5432/stats-test
+ * (учетные данные - stats.test.postgres.username / stats.test.postgres.password).
+ */
+@EnabledIfSystemProperty(named = "stats.test.postgres.url", matches = ".+")
+class HitPartitionManagerPostgresTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private JdbcTemplate jdbcTemplate;
+    private HitPartitionManager manager;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                System.getProperty("stats.test.postgres.url"),
+                System.getProperty("stats.test.postgres.username", "dbuser"),
+                System.getProperty("stats.test.postgres.password", "12345"));
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("schema-postgresql.sql"));
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        manager = new HitPartitionManager(jdbcTemplate,
+                new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+                mock(HitRollupRepository.class),
+                mock(HitSketchRepository.class),
+                meterRegistry);
+        ReflectionTestUtils.setField(manager, "daysAhead", 1);
+    }
+
+    @Test
+    void hitsInDefaultPartitionAreMovedToNewPartition() {
+        LocalDate today = LocalDate.now();
+        insertHit(today.atTime(10, 0));
+        insertHit(today.plusDays(1).atTime(11, 0));
+        insertHit(today.minusDays(3).atTime(12, 0));
+
+        manager.maintain();
+
+        assertThat(count("endpoint_hits_default")).isZero();
+        assertThat(count(partition(today))).isEqualTo(1);
+        assertThat(count(partition(today.plusDays(1)))).isEqualTo(1);
+        assertThat(count(partition(today.minusDays(3)))).isEqualTo(1);
+        assertThat(count("endpoint_hits")).isEqualTo(3);
+        assertThat(meterRegistry.get("stats.partitions.failed").counter().count()).isZero();
+    }
+
+    @Test
+    void repeatedMaintenanceKeepsExistingPartitions() {
+        LocalDate today = LocalDate.now();
+        manager.maintain();
+        insertHit(today.atTime(10, 0));
+
+        manager.maintain();
+
+        assertThat(count(partition(today))).isEqualTo(1);
+        assertThat(count("endpoint_hits_default")).isZero();
+    }
+
+    @Test
+    void failedCreationIsCounted() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        // Секция вне схемы именования пересекается с суточной: ATTACH падает, перенос откатывается
+        jdbcTemplate.execute("CREATE TABLE endpoint_hits_manual PARTITION OF endpoint_hits FOR VALUES FROM ('%s') TO ('%s')"
+                .formatted(yesterday.atTime(12, 0), yesterday.atTime(13, 0)));
+        insertHit(yesterday.atTime(10, 0));
+
+        manager.maintain();
+
+        assertThat(meterRegistry.get("stats.partitions.failed").counter().count()).isEqualTo(1);
+        assertThat(count("endpoint_hits_default")).isEqualTo(1);
+    }
+
+    private void insertHit(LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO endpoint_hits (app_id, uri_id, ip, hit_timestamp) VALUES (1, 1, ?, ?)",
+                new byte[]{127, 0, 0, 1}, timestamp);
+    }
+
+    private long count(String table) {
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        return count == null ? 0 : count;
+    }
+
+    private String partition(LocalDate day) {
+        return "endpoint_hits_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
@@ -0,0 +1,97 @@
+package ru.practicum.stats.service;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.stats.EndpointHitDto;
+import ru.practicum.stats.ViewStatsDto;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HotWindowViewCounterTest {
+
+    private static final int THREADS = 8;
+    private static final int URIS_PER_THREAD = 5_000;
+
+    @Test
+    void hitsAreCountedWithinWindow() throws InterruptedException {
+        HotWindowViewCounter counter = startedCounter();
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        counter.recordAfterCommit(List.of(hit("/events/1", "10.0.0.1", now),
+                hit("/events/1", "10.0.0.1", now),
+                hit("/events/1", "10.0.0.2", now),
+                hit("/events/2", "10.0.0.1", now)));
+
+        assertThat(counter.query(now, now.plusSeconds(1), List.of("/events/1"), false))
+                .hasValueSatisfying(stats -> assertThat(stats).extracting(ViewStatsDto::getHits).containsExactly(3L));
+        assertThat(counter.query(now, now.plusSeconds(1), List.of("/events/1"), true))
+                .hasValueSatisfying(stats -> assertThat(stats).extracting(ViewStatsDto::getHits).containsExactly(2L));
+    }
+
+    @Test
+    void concurrentEvictionDoesNotLoseHits() throws Exception {
+        HotWindowViewCounter counter = startedCounter();
+        LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        AtomicBoolean recording = new AtomicBoolean(true);
+        CountDownLatch ready = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            // Свежие кольца пусты и выглядят простаивающими - именно их и пытается удалить очистка
+            Future<?> evictor = executor.submit(() -> {
+                ready.countDown();
+                while (recording.get()) {
+                    counter.evictIdle();
+                }
+            });
+            ready.await();
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < URIS_PER_THREAD; i++) {
+                        counter.recordAfterCommit(List.of(
+                                hit("/events/" + thread + "-" + i, "10.0.0.1", LocalDateTime.now())));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            recording.set(false);
+            evictor.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<ViewStatsDto> stats = counter.query(start, LocalDateTime.now().plusSeconds(1), List.of(), false)
+                .orElseThrow();
+        assertThat(stats).hasSize(THREADS * URIS_PER_THREAD);
+        assertThat(stats.stream().mapToLong(ViewStatsDto::getHits).sum()).isEqualTo(THREADS * URIS_PER_THREAD);
+    }
+
+    // Хиты до старта счетчика в памяти не учитываются, поэтому ждем начала следующей секунды
+    private HotWindowViewCounter startedCounter() throws InterruptedException {
+        HotWindowViewCounter counter = new HotWindowViewCounter(true, 15, 64);
+        TimeUnit.MILLISECONDS.sleep(1000 - LocalDateTime.now().getNano() / 1_000_000 + 10);
+        return counter;
+    }
+
+    private EndpointHitDto hit(String uri, String ip, LocalDateTime timestamp) {
+        return EndpointHitDto.builder()
+                .app("main-service")
+                .uri(uri)
+                .ip(ip)
+                .timestamp(timestamp)
+                .build();
+    }
+}